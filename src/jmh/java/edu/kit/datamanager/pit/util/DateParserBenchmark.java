@@ -0,0 +1,66 @@
+package edu.kit.datamanager.pit.util;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.format.ISODateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the date parsing used for extracting dates from records with the
+ * previous implementation (a new Joda formatter per value, exceptions for
+ * non-dates).
+ *
+ * The values resemble the attributes of a typical FAIR DO record: most of them
+ * are PIDs, URLs, checksums or versions, only a few are dates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateParserBenchmark {
+
+    static final String[] RECORD_VALUES = {
+        "21.T11148/301c6f04763a16f0f72a",
+        "2021-12-21T17:36:09.541+00:00",
+        "21.T11148/37d0f4689c6ea3301787",
+        "{ \"sha256sum\": \"sha256 c50624fd5ddd2b9652b72e2d2eabcb31a54b777718ab6fb7e44b582c20239a7c\" }",
+        "2021-12-21T17:36:09Z",
+        "https://test.repo/file001",
+        "1.0.0",
+        "21.T11148/ManuscriptPage",
+        "application/json",
+        "2023-05-04 08:15:00.123456+0200",
+        "https://orcid.org/0000-0001-6575-1022",
+        "2024-01-31",
+    };
+
+    @Benchmark
+    public void dateParser(Blackhole blackhole) {
+        for (String value : RECORD_VALUES) {
+            blackhole.consume(DateParser.parse(value));
+        }
+    }
+
+    @Benchmark
+    public void jodaPerValue(Blackhole blackhole) {
+        for (String value : RECORD_VALUES) {
+            blackhole.consume(joda(value));
+        }
+    }
+
+    /** The previous implementation of Operations.extractDate. */
+    static Optional<Date> joda(String value) {
+        try {
+            return Optional.of(ISODateTimeFormat.dateTime().parseDateTime(value).toDate());
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+}
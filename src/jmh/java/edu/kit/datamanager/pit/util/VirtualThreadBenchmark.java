@@ -0,0 +1,95 @@
+package edu.kit.datamanager.pit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Simulates a load test at high concurrency: many requests arrive at once, each
+ * resolves a type (cache miss, the type registry takes 10ms) and waits for the
+ * PID system (5ms). Measures the time until all requests are answered.
+ *
+ * Compares the Tomcat default (200 platform threads) with virtual threads, and
+ * the Guava type cache (which loads while holding a monitor, pinning virtual
+ * threads) with {@link CoalescingLoadingCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadBenchmark {
+
+    private static final int TYPE_REGISTRY_MS = 10;
+    private static final int PID_SYSTEM_MS = 5;
+    private static final int DISTINCT_TYPES = 500;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"guava", "coalescing"})
+    public String cache;
+
+    @Param({"2000"})
+    public int requests;
+
+    private ExecutorService executor;
+    private LoadingCache<String, String> types;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        executor = "virtual".equals(threads)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(200);
+        CacheLoader<String, String> loader = new CacheLoader<>() {
+            @Override
+            public String load(String key) throws InterruptedException {
+                Thread.sleep(TYPE_REGISTRY_MS);
+                return key;
+            }
+        };
+        types = "coalescing".equals(cache)
+            ? new CoalescingLoadingCache<>(CacheBuilder.newBuilder(), loader)
+            : CacheBuilder.newBuilder().build(loader);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentRequests() throws Exception {
+        List<Future<String>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            String type = "21.T11148/" + (i % DISTINCT_TYPES);
+            responses.add(executor.submit(() -> {
+                String resolved = types.get(type);
+                Thread.sleep(PID_SYSTEM_MS);
+                return resolved;
+            }));
+        }
+        int answered = 0;
+        for (Future<String> response : responses) {
+            response.get();
+            answered++;
+        }
+        return answered;
+    }
+}
@@ -0,0 +1,139 @@
+package edu.kit.datamanager.pit.web.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.SimplePidRecord;
+
+/**
+ * Compares JSON and CBOR for both record representations: serialization and
+ * deserialization time per record. The payload sizes are reported as the
+ * secondary results "recordBytes" and "simpleRecordBytes" (see
+ * {@link PayloadSize}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecordFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    /** Amount of attributes in the record. */
+    @Param({"10", "100"})
+    public int attributes;
+
+    private ObjectMapper mapper;
+    private SimplePidRecordConverter simpleConverter;
+    private PIDRecord record;
+    private byte[] serialized;
+    private byte[] serializedSimple;
+
+    /**
+     * Reports the payload sizes of the current format along with the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long recordBytes;
+        public long simpleRecordBytes;
+
+        @Setup(Level.Iteration)
+        public void setup(RecordFormatBenchmark benchmark) {
+            recordBytes = benchmark.serialized.length;
+            simpleRecordBytes = benchmark.serializedSimple.length;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        boolean isCbor = "cbor".equals(format);
+        mapper = isCbor ? Application.cborObjectMapper() : Application.jsonObjectMapper();
+        simpleConverter = new SimplePidRecordConverter(mapper, MediaType.valueOf(
+            isCbor ? SimplePidRecord.CONTENT_TYPE_CBOR : SimplePidRecord.CONTENT_TYPE));
+        record = createRecord(attributes);
+        serialized = mapper.writeValueAsBytes(record);
+        serializedSimple = writeSimple();
+    }
+
+    static PIDRecord createRecord(int attributes) {
+        PIDRecord rec = new PIDRecord().withPID("sandboxed/2c3f1f4e-6a4a-4e4b-9b0e-0a0c7d6e5f41");
+        rec.addEntry("21.T11148/076759916209e5d62bd5", "kernelInformationProfile", "21.T11148/301c6f04763a16f0f72a");
+        rec.addEntry("21.T11148/aafd5fb4c7222e2d950a", "dateCreated", "2021-12-21T17:36:09.541+00:00");
+        rec.addEntry("21.T11148/397d831aa3a9d18eb52c", "dateModified", "2021-12-21T17:36:09.541+00:00");
+        for (int i = 3; i < attributes; i++) {
+            rec.addEntry("21.T11148/b8457812905b83046284", "digitalObjectLocation", "https://test.repo/file" + i);
+        }
+        return rec;
+    }
+
+    private byte[] writeSimple() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        simpleConverter.write(record, null, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+        });
+        return body.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeRecord(PayloadSize size) throws IOException {
+        return mapper.writeValueAsBytes(record);
+    }
+
+    @Benchmark
+    public PIDRecord deserializeRecord(PayloadSize size) throws IOException {
+        return mapper.readValue(serialized, PIDRecord.class);
+    }
+
+    @Benchmark
+    public byte[] serializeSimpleRecord(PayloadSize size) throws IOException {
+        return writeSimple();
+    }
+
+    @Benchmark
+    public PIDRecord deserializeSimpleRecord(PayloadSize size) throws IOException {
+        InputStream body = new ByteArrayInputStream(serializedSimple);
+        return simpleConverter.read(PIDRecord.class, new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+        });
+    }
+}
@@ -25,46 +25,70 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalNotification;
 
 import edu.kit.datamanager.pit.cli.CliTaskBootstrap;
+import edu.kit.datamanager.pit.cli.CliTaskReindex;
+import edu.kit.datamanager.pit.cli.CliTaskRestore;
+import edu.kit.datamanager.pit.cli.CliTaskSnapshot;
+import edu.kit.datamanager.pit.cli.CliTaskValidate;
 import edu.kit.datamanager.pit.cli.CliTaskWriteFile;
 import edu.kit.datamanager.pit.cli.ICliTask;
 import edu.kit.datamanager.pit.cli.PidSource;
 import edu.kit.datamanager.pit.common.InvalidConfigException;
 import edu.kit.datamanager.pit.configuration.ApplicationProperties;
+import edu.kit.datamanager.pit.configuration.TypeRegistryProperties;
 import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.SimplePidRecord;
 import edu.kit.datamanager.pit.domain.TypeDefinition;
 import edu.kit.datamanager.pit.pidsystem.IIdentifierSystem;
+import edu.kit.datamanager.pit.pitservice.IAsyncTypingService;
 import edu.kit.datamanager.pit.pitservice.ITypingService;
+import edu.kit.datamanager.pit.pitservice.impl.AsyncTypingService;
 import edu.kit.datamanager.pit.pitservice.impl.TypingService;
 import edu.kit.datamanager.pit.typeregistry.ITypeRegistry;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex;
+import edu.kit.datamanager.pit.typeregistry.impl.RoutingTypeRegistry;
 import edu.kit.datamanager.pit.typeregistry.impl.TypeRegistry;
+import edu.kit.datamanager.pit.util.CoalescingLoadingCache;
+import edu.kit.datamanager.pit.util.PartitionedLoadingCache;
 import edu.kit.datamanager.pit.web.converter.SimplePidRecordConverter;
 import edu.kit.datamanager.security.filter.KeycloakJwtProperties;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
-import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.cache.CacheConfig;
-import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
+import org.apache.hc.client5.http.impl.cache.CacheConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.InjectionPoint;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Scope;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
 
 /**
  *
@@ -85,6 +109,10 @@ public class Application {
 
     protected static final String CMD_BOOTSTRAP = "bootstrap";
     protected static final String CMD_WRITE_FILE = "write-file";
+    protected static final String CMD_SNAPSHOT = "snapshot";
+    protected static final String CMD_RESTORE = "restore";
+    protected static final String CMD_VALIDATE = "validate";
+    protected static final String CMD_REINDEX = "reindex";
 
     protected static final String SOURCE_FROM_PREFIX = "all-pids-from-prefix";
     protected static final String SOURCE_KNOWN_PIDS = "known-pids";
@@ -100,14 +128,65 @@ public class Application {
         return LoggerFactory.getLogger(targetClass.getCanonicalName());
     }
 
+    /**
+     * Resolves types via the handle proxy, if no registry is configured for
+     * their prefix (see {@link TypeRegistryProperties#getRegistries()}).
+     */
     @Bean
-    public ITypeRegistry typeRegistry() {
+    public TypeRegistry proxyTypeRegistry() {
         return new TypeRegistry();
     }
 
     @Bean
-    public ITypingService typingService(IIdentifierSystem identifierSystem, ApplicationProperties props) {
-        return new TypingService(identifierSystem, typeRegistry(), typeLoader(props));
+    public ITypeRegistry typeRegistry() {
+        return new RoutingTypeRegistry(proxyTypeRegistry());
+    }
+
+    @Bean
+    public ITypingService typingService(
+            IIdentifierSystem identifierSystem,
+            ApplicationProperties props,
+            TypeRegistryProperties registryProps) {
+        return new TypingService(
+                identifierSystem,
+                typeRegistry(),
+                typeLoader(props, registryProps),
+                semanticTypeIndex(props, registryProps));
+    }
+
+    /**
+     * Runs typing service operations in the background, in virtual threads if
+     * they are enabled (spring.threads.virtual.enabled). Otherwise, at most
+     * pit.async.max-threads platform threads are used (by default as many as
+     * the request threads of Tomcat). If all of them are busy, the calling
+     * request thread runs the operation itself.
+     */
+    @Bean
+    public IAsyncTypingService asyncTypingService(
+            ITypingService typingService,
+            Environment environment,
+            @Value("${pit.async.max-threads:${server.tomcat.threads.max:200}}") int maxThreads) {
+        ExecutorService executor;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("typing-async-", 0).factory());
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    maxThreads, maxThreads,
+                    60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(),
+                    Thread.ofPlatform().name("typing-async-", 0).daemon(true).factory(),
+                    // unlike CallerRunsPolicy, also runs (instead of drops) tasks after shutdown,
+                    // so no caller waits forever
+                    (task, rejectedBy) -> task.run());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return new AsyncTypingService(typingService, executor);
+    }
+
+    @Bean
+    public SemanticTypeIndex semanticTypeIndex(ApplicationProperties props, TypeRegistryProperties registryProps) {
+        return new SemanticTypeIndex(typeLoader(props, registryProps));
     }
 
     @Bean(name = "OBJECT_MAPPER_BEAN")
@@ -119,24 +198,38 @@ public class Application {
                 .build();
     }
 
-    @Bean
-    public HttpClient httpClient() {
-        return CachingHttpClientBuilder
-                .create()
-                .setCacheConfig(cacheConfig())
+    /**
+     * The binary (CBOR) counterpart of {@link #jsonObjectMapper()}, with the same
+     * configuration. Not a bean, to not interfere with the JSON mapper.
+     */
+    public static ObjectMapper cborObjectMapper() {
+        return Jackson2ObjectMapperBuilder.cbor()
+                .serializationInclusion(JsonInclude.Include.NON_EMPTY)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modules(new JavaTimeModule())
                 .build();
     }
 
+    /**
+     * HTTP client for types resolved via the handle proxy. Registries which are
+     * accessed directly have their own clients, see {@link RoutingTypeRegistry}.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(TypeRegistryProperties props) {
+        return TypeRegistry.createHttpClient(props);
+    }
+
     @Bean
-    public CacheConfig cacheConfig() {
-        return CacheConfig 
-                .custom()
-                .setMaxObjectSize(500000) // 500KB
-                .setMaxCacheEntries(2000)
-                // Set this to false and a response with queryString
-                // will be cached when it is explicitly cacheable
-                // .setNeverCacheHTTP10ResponsesWithQueryString(false)
-                .build();
+    public CacheConfig cacheConfig(TypeRegistryProperties props) {
+        return TypeRegistry.createCacheConfig(props);
+    }
+
+    /**
+     * Accesses the type registry using {@link #httpClient(TypeRegistryProperties)}.
+     */
+    @Bean
+    public RestTemplate typeRegistryRestTemplate(CloseableHttpClient httpClient) {
+        return TypeRegistry.createRestTemplate(httpClient);
     }
 
     /**
@@ -145,27 +238,52 @@ public class Application {
      * Therefore, it can be used instead of the ITypeRegistry implementations.
      * Retrieve it using Autowire or from the application context.
      * 
-     * @param props the applications properties set by the administration at the
-     *              start of this application.
+     * Each registry in {@link TypeRegistryProperties#getRegistries()} has its own
+     * partition of the cache, so its types do not evict the types of others.
+     * 
+     * @param props         the applications properties set by the administration
+     *                      at the start of this application.
+     * @param registryProps the directly accessed registries.
      * @return the cache
      */
     @Bean
-    public LoadingCache<String, TypeDefinition> typeLoader(ApplicationProperties props) {
-        int maximumsize = props.getMaximumSize();
-        long expireafterwrite = props.getExpireAfterWrite();
-        return CacheBuilder.newBuilder()
-                .maximumSize(maximumsize)
-                .expireAfterWrite(expireafterwrite, TimeUnit.MINUTES)
+    public LoadingCache<String, TypeDefinition> typeLoader(
+            ApplicationProperties props,
+            TypeRegistryProperties registryProps) {
+        CacheLoader<String, TypeDefinition> loader = new CacheLoader<String, TypeDefinition>() {
+            @Override
+            public TypeDefinition load(String typeIdentifier) throws IOException, URISyntaxException {
+                LOG.trace("Loading type definition for identifier {} to cache.", typeIdentifier);
+                return typeRegistry().queryTypeDefinition(typeIdentifier);
+            }
+        };
+        Map<String, LoadingCache<String, TypeDefinition>> partitions = new HashMap<>();
+        for (TypeRegistryProperties.Registry registry : registryProps.getRegistries()) {
+            int maximumSize = registry.getTypeCacheMaxEntries() != null
+                    ? registry.getTypeCacheMaxEntries()
+                    : props.getMaximumSize();
+            partitions.put(
+                    RoutingTypeRegistry.normalizePrefix(registry.getPrefix()),
+                    typeCache(maximumSize, props.getExpireAfterWrite(), loader));
+        }
+        return new PartitionedLoadingCache<>(
+                RoutingTypeRegistry::prefixOf,
+                partitions,
+                typeCache(props.getMaximumSize(), props.getExpireAfterWrite(), loader));
+    }
+
+    private static LoadingCache<String, TypeDefinition> typeCache(
+            int maximumSize,
+            long expireAfterWrite,
+            CacheLoader<String, TypeDefinition> loader) {
+        CacheBuilder<String, TypeDefinition> builder = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite, TimeUnit.MINUTES)
                 .removalListener((RemovalNotification<String, TypeDefinition> rn) -> LOG.trace(
                         "Removing type definition located at {} from schema cache. Cause: {}", rn.getKey(),
-                        rn.getCause()))
-                .build(new CacheLoader<String, TypeDefinition>() {
-                    @Override
-                    public TypeDefinition load(String typeIdentifier) throws IOException, URISyntaxException {
-                        LOG.trace("Loading type definition for identifier {} to cache.", typeIdentifier);
-                        return typeRegistry().queryTypeDefinition(typeIdentifier);
-                    }
-                });
+                        rn.getCause()));
+        // loads without holding a monitor, so virtual threads are not pinned
+        return new CoalescingLoadingCache<>(builder, loader);
     }
 
     @ConfigurationProperties("pit")
@@ -184,6 +302,20 @@ public class Application {
         return new SimplePidRecordConverter();
     }
 
+    @Bean
+    public HttpMessageConverter<PIDRecord> simplePidRecordCborConverter() {
+        return new SimplePidRecordConverter(cborObjectMapper(), MediaType.valueOf(SimplePidRecord.CONTENT_TYPE_CBOR));
+    }
+
+    /**
+     * Replaces the default CBOR converter, so records are serialized like in
+     * JSON (e.g. without empty fields).
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+    }
+
     public static void main(String[] args) {
         ConfigurableApplicationContext context = SpringApplication.run(Application.class, args);
         System.out.println("Spring is running!");
@@ -194,7 +326,12 @@ public class Application {
             ICliTask task = null;
             Stream<String> pidSource = null;
             
-            if (Objects.equals(args[1], SOURCE_FROM_PREFIX)) {
+            // restore reads a snapshot directory instead of a PID source
+            final boolean needsPidSource = !Objects.equals(args[0], CMD_RESTORE);
+
+            if (!needsPidSource) {
+                task = new CliTaskRestore(context, Paths.get(args[1]));
+            } else if (Objects.equals(args[1], SOURCE_FROM_PREFIX)) {
                 try {
                     pidSource = PidSource.fromPrefix(context);
                 } catch (IOException e) {
@@ -209,11 +346,17 @@ public class Application {
             if (Objects.equals(args[0], CMD_BOOTSTRAP)) {
                 task = new CliTaskBootstrap(context, pidSource);
             } else if (Objects.equals(args[0], CMD_WRITE_FILE)) {
-                task = new CliTaskWriteFile(pidSource);
+                task = new CliTaskWriteFile(context, pidSource);
+            } else if (Objects.equals(args[0], CMD_SNAPSHOT)) {
+                task = new CliTaskSnapshot(context, pidSource);
+            } else if (Objects.equals(args[0], CMD_VALIDATE)) {
+                task = new CliTaskValidate(context, pidSource);
+            } else if (Objects.equals(args[0], CMD_REINDEX)) {
+                task = new CliTaskReindex(context, pidSource);
             }
 
             try {
-                if (task != null && pidSource != null) {
+                if (task != null && (pidSource != null || !needsPidSource)) {
                     // ---process task---
                     if (task.process()) {
                         exitApp(context, 0);
@@ -244,6 +387,13 @@ public class Application {
         LOG.error("java -jar TypedPIDMaker.jar bootstrap known-pids");
         LOG.error("java -jar TypedPIDMaker.jar write-file all-pids-from-prefix");
         LOG.error("java -jar TypedPIDMaker.jar write-file known-pids");
+        LOG.error("java -jar TypedPIDMaker.jar snapshot all-pids-from-prefix");
+        LOG.error("java -jar TypedPIDMaker.jar snapshot known-pids");
+        LOG.error("java -jar TypedPIDMaker.jar restore [SNAPSHOT DIRECTORY]");
+        LOG.error("java -jar TypedPIDMaker.jar validate all-pids-from-prefix");
+        LOG.error("java -jar TypedPIDMaker.jar validate known-pids");
+        LOG.error("java -jar TypedPIDMaker.jar reindex all-pids-from-prefix");
+        LOG.error("java -jar TypedPIDMaker.jar reindex known-pids");
     }
 
     private static void exitApp(ConfigurableApplicationContext context, int errCode) {
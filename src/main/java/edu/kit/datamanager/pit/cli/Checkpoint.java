@@ -0,0 +1,165 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers how many PIDs of a source were processed completely, and which
+ * one was the last of them, so an interrupted task can skip them on the next
+ * run.
+ * 
+ * Batches may complete out of order. The checkpoint only advances over batches
+ * for which all previous batches are completed, too. Resuming therefore may
+ * process a few batches again, so tasks need to be idempotent.
+ * 
+ * Tasks reading ordered PIDs resume after the last PID (see
+ * {@link #getLastPid()}). Only tasks with a source that delivers the same
+ * entries in the same order on each run (e.g. the files of a snapshot) may skip
+ * the amount of processed entries (see {@link #getStart()}).
+ * 
+ * The file contains the amount of processed entries in the first line and the
+ * last processed PID, if known, in the second line.
+ */
+public class Checkpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Checkpoint.class);
+
+    private final Path file;
+    private final long start;
+    private final String startPid;
+    private long nextBatch = 0;
+    private long processed;
+    private String lastPid;
+    /** Batches completed ahead of the next expected batch. */
+    private final Map<Long, Batch> completedAhead = new TreeMap<>();
+
+    private record Batch(int size, String lastPid) {}
+
+    private Checkpoint(Path file, long start, String startPid) {
+        this.file = file;
+        this.start = start;
+        this.startPid = startPid;
+        this.processed = start;
+        this.lastPid = startPid;
+    }
+
+    /**
+     * @param filename the file to store the progress in, or an empty string to
+     *                 disable checkpoints.
+     * @return the checkpoint, initialized from the file, if it exists.
+     * @throws IOException if the file exists but can not be read.
+     */
+    public static Checkpoint of(String filename) throws IOException {
+        if (filename == null || filename.isBlank()) {
+            return new Checkpoint(null, 0, null);
+        }
+        Path path = Path.of(filename);
+        long start = 0;
+        String startPid = null;
+        if (Files.exists(path)) {
+            List<String> lines = Files.readString(path).strip().lines().toList();
+            String count = lines.isEmpty() ? "" : lines.get(0).strip();
+            try {
+                start = count.isEmpty() ? 0 : Long.parseLong(count);
+            } catch (NumberFormatException e) {
+                throw new IOException("Checkpoint file %s is invalid: %s".formatted(path, count), e);
+            }
+            if (lines.size() > 1 && !lines.get(1).isBlank()) {
+                startPid = lines.get(1).strip();
+            }
+            LOG.info("Resuming from checkpoint {}: {} PIDs processed, last one was {}.", path, start, startPid);
+        }
+        return new Checkpoint(path, start, startPid);
+    }
+
+    /**
+     * @return the amount of PIDs to skip, as they were processed in a previous
+     *         run.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the last PID processed in a previous run, if known. Tasks with an
+     *         ordered source continue after this PID.
+     */
+    public Optional<String> getLastPid() {
+        return Optional.ofNullable(startPid);
+    }
+
+    /**
+     * @return the amount of PIDs processed completely, including the ones of
+     *         previous runs.
+     */
+    public synchronized long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * Marks a batch as completed and stores the progress, if possible.
+     * 
+     * @param batchIndex the index of the batch within this run, starting at 0.
+     * @param size       the amount of PIDs within the batch.
+     */
+    public void completed(long batchIndex, int size) {
+        completed(batchIndex, size, null);
+    }
+
+    /**
+     * Marks a batch of ordered PIDs as completed and stores the progress, if
+     * possible.
+     * 
+     * @param batchIndex the index of the batch within this run, starting at 0.
+     * @param size       the amount of PIDs within the batch.
+     * @param lastPid    the last (greatest) PID of the batch.
+     */
+    public synchronized void completed(long batchIndex, int size, String lastPid) {
+        completedAhead.put(batchIndex, new Batch(size, lastPid));
+        boolean advanced = false;
+        Batch next;
+        while ((next = completedAhead.remove(nextBatch)) != null) {
+            processed += next.size();
+            if (next.lastPid() != null) {
+                this.lastPid = next.lastPid();
+            }
+            nextBatch++;
+            advanced = true;
+        }
+        if (advanced) {
+            store();
+        }
+    }
+
+    /**
+     * Removes the checkpoint file, e.g. after all PIDs were processed.
+     */
+    public synchronized void clear() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void store() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            String content = lastPid == null ? Long.toString(processed) : processed + "\n" + lastPid;
+            Files.writeString(tmp, content);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not store checkpoint {}.", file, e);
+        }
+    }
+}
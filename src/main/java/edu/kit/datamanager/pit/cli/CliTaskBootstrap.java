@@ -1,8 +1,19 @@
 package edu.kit.datamanager.pit.cli;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -10,11 +21,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.RateLimiter;
+
 import edu.kit.datamanager.entities.messaging.PidRecordMessage;
 import edu.kit.datamanager.pit.common.ExternalServiceException;
 import edu.kit.datamanager.pit.common.InvalidConfigException;
 import edu.kit.datamanager.pit.common.PidNotFoundException;
 import edu.kit.datamanager.pit.configuration.ApplicationProperties;
+import edu.kit.datamanager.pit.configuration.CliProperties;
 import edu.kit.datamanager.pit.domain.PIDRecord;
 import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticRepository;
 import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
@@ -25,12 +40,24 @@ import edu.kit.datamanager.service.IMessagingService;
 import edu.kit.datamanager.util.AuthenticationHelper;
 import edu.kit.datamanager.util.ControllerUtils;
 
+/**
+ * Stores the PIDs of a source as known PIDs, sends a message for each of them
+ * and indexes their records in Elasticsearch (if enabled).
+ *
+ * PIDs are processed in batches (pit.cli.batch-size) by several threads
+ * (pit.cli.workers). Records are resolved with the configured rate limit
+ * (pit.cli.rate-limit) to not overload the PID system. If a checkpoint file is
+ * configured (pit.cli.checkpoint-file), an interrupted run continues after the
+ * last PID it processed. This requires the source to deliver the PIDs in
+ * ascending order, like all sources in {@link PidSource} do.
+ */
 public class CliTaskBootstrap implements ICliTask {
 
     private static final Logger LOG = LoggerFactory.getLogger(CliTaskBootstrap.class);
 
     protected Stream<String> pids;
     protected ApplicationProperties appProps;
+    protected CliProperties cliProps;
     protected KnownPidsDao knownPids;
     protected IMessagingService messagingService;
     protected Optional<PidRecordElasticRepository> elastic;
@@ -39,6 +66,7 @@ public class CliTaskBootstrap implements ICliTask {
     public CliTaskBootstrap(ConfigurableApplicationContext context, Stream<String> pids) {
         this.pids = pids;
         this.appProps = context.getBean(ApplicationProperties.class);
+        this.cliProps = context.getBean(CliProperties.class);
         this.knownPids = context.getBean(KnownPidsDao.class);
         this.messagingService = context.getBean(IMessagingService.class);
         this.elastic = this.getBeanOptional(context, PidRecordElasticRepository.class);
@@ -55,39 +83,118 @@ public class CliTaskBootstrap implements ICliTask {
 
     @Override
     public boolean process() throws IOException, InvalidConfigException {
-        Instant unknownTime = Instant.ofEpochMilli(0);
-        pids
-            .map(pid -> new KnownPid(pid, unknownTime, unknownTime))
-            .forEach(known -> {
-                // store PIDs in the local database of known PIDs
-                LOG.info("Store PID {} in the local database of known PIDs.", known.getPid());
-                boolean exists = knownPids.findByPid(known.getPid()).isPresent();
-                if (!exists) {
-                    knownPids.save(known);
-                }
-                // send to message broker
-                PidRecordMessage message = PidRecordMessage.creation(
-                    known.getPid(),
-                    "",
-                    AuthenticationHelper.getPrincipal(),
-                    ControllerUtils.getLocalHostname()
-                );
-                LOG.info("Send PID {} to message broker.", known.getPid());
-                messagingService.send(message);
-                // store in Elasticsearch
-                elastic.ifPresent(elastic -> {
+        Checkpoint checkpoint = Checkpoint.of(cliProps.getCheckpointFile());
+        Optional<RateLimiter> rateLimiter = cliProps.getRateLimit() > 0
+                ? Optional.of(RateLimiter.create(cliProps.getRateLimit()))
+                : Optional.empty();
+        int workers = cliProps.getWorkers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // limits the amount of batches in memory
+        Semaphore inFlight = new Semaphore(workers * 2);
+        AtomicLong failedBatches = new AtomicLong();
+        Instant started = Instant.now();
+        // the worker threads do not share the security context of this thread
+        String principal = AuthenticationHelper.getPrincipal();
+
+        Stream<String> remaining = pids;
+        Optional<String> lastPid = checkpoint.getLastPid();
+        if (lastPid.isPresent()) {
+            String last = lastPid.get();
+            remaining = pids.dropWhile(pid -> pid.compareTo(last) <= 0);
+        } else if (checkpoint.getStart() > 0) {
+            LOG.warn("Checkpoint does not contain the last processed PID. Starting from the beginning.");
+        }
+        Iterator<List<String>> batches = Iterators.partition(
+            remaining.iterator(),
+            cliProps.getBatchSize());
+        long batchIndex = 0;
+        try {
+            while (batches.hasNext()) {
+                List<String> batch = batches.next();
+                final long index = batchIndex++;
+                inFlight.acquire();
+                executor.execute(() -> {
                     try {
-                        PIDRecord rec = typingService.queryAllProperties(known.getPid());
-                        LOG.info("Store PID {} in Elasticsearch.", known.getPid());
-                        PidRecordElasticWrapper wrapper = new PidRecordElasticWrapper(rec, typingService.getOperations());
-                        elastic.save(wrapper);
-                    } catch (PidNotFoundException | ExternalServiceException e) {
-                        LOG.error("Failed to query PID {}.", known.getPid(), e);
+                        processBatch(batch, rateLimiter, principal);
+                        checkpoint.completed(index, batch.size(), batch.get(batch.size() - 1));
+                        LOG.info("Bootstrapped {} PIDs.", checkpoint.getProcessed());
+                    } catch (RuntimeException e) {
+                        failedBatches.incrementAndGet();
+                        LOG.error("Failed to bootstrap batch of {} PIDs starting with {}.", batch.size(), batch.get(0), e);
+                    } finally {
+                        inFlight.release();
                     }
                 });
-            });
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Waiting for remaining batches. Bootstrapped {} PIDs so far.", checkpoint.getProcessed());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Bootstrap was interrupted.", e);
+        }
+
         knownPids.flush();
+        long processed = checkpoint.getProcessed();
+        LOG.info("Bootstrapped {} PIDs in {}.", processed, Duration.between(started, Instant.now()));
+        if (failedBatches.get() == 0) {
+            checkpoint.clear();
+        } else {
+            LOG.error("{} batches failed. Run the task again to retry them.", failedBatches.get());
+        }
         return false;
     }
 
+    /**
+     * Stores, announces and indexes a batch of PIDs.
+     *
+     * @param batch       the PIDs.
+     * @param rateLimiter limits the rate of resolving records, if present.
+     * @param principal   the principal to mention in the messages.
+     */
+    protected void processBatch(List<String> batch, Optional<RateLimiter> rateLimiter, String principal) {
+        // store PIDs in the local database of known PIDs, without touching existing ones
+        Set<String> existing = knownPids.findAllById(batch).stream()
+                .map(KnownPid::getPid)
+                .collect(Collectors.toSet());
+        Instant unknownTime = Instant.ofEpochMilli(0);
+        List<KnownPid> newPids = batch.stream()
+                .distinct()
+                .filter(pid -> !existing.contains(pid))
+                .map(pid -> new KnownPid(pid, unknownTime, unknownTime))
+                .toList();
+        LOG.debug("Store {} new PIDs in the local database of known PIDs.", newPids.size());
+        knownPids.insertAll(newPids);
+
+        // send to message broker
+        for (String pid : batch) {
+            PidRecordMessage message = PidRecordMessage.creation(
+                pid,
+                "",
+                principal,
+                ControllerUtils.getLocalHostname()
+            );
+            LOG.debug("Send PID {} to message broker.", pid);
+            messagingService.send(message);
+        }
+
+        // store in Elasticsearch
+        elastic.ifPresent(elastic -> {
+            List<PidRecordElasticWrapper> wrappers = new ArrayList<>(batch.size());
+            for (String pid : batch) {
+                rateLimiter.ifPresent(RateLimiter::acquire);
+                try {
+                    PIDRecord rec = typingService.queryAllProperties(pid);
+                    wrappers.add(new PidRecordElasticWrapper(rec, typingService.getOperations()));
+                } catch (PidNotFoundException | ExternalServiceException e) {
+                    LOG.error("Failed to query PID {}.", pid, e);
+                }
+            }
+            LOG.debug("Store {} records in Elasticsearch.", wrappers.size());
+            elastic.saveAll(wrappers);
+        });
+    }
+
 }
@@ -0,0 +1,243 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.RateLimiter;
+
+import edu.kit.datamanager.pit.common.ExternalServiceException;
+import edu.kit.datamanager.pit.common.InvalidConfigException;
+import edu.kit.datamanager.pit.common.PidNotFoundException;
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.elasticsearch.ElasticsearchBulkSink;
+import edu.kit.datamanager.pit.elasticsearch.IBulkIndexSink;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordIndexManager;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+/**
+ * Rebuilds the search index from the records of a PID source without
+ * interrupting the search.
+ *
+ * The records are written into a new, versioned index (see
+ * {@link PidRecordIndexManager}) with bulk requests, while the search still
+ * uses the previous index. Replicas and refresh are disabled while writing.
+ * Afterwards, they are enabled again and the search alias is switched to the
+ * new index in a single request.
+ *
+ * Records are resolved in batches (pit.cli.batch-size) by several threads
+ * (pit.cli.workers), with the configured rate limit (pit.cli.rate-limit). If a
+ * record can not be written, the alias is not switched.
+ *
+ * An index created before versioned indices were used has the name of the
+ * alias and has to be deleted by the switch. The task only does this if
+ * pit.cli.reindex-delete-previous is set, and otherwise refuses to start.
+ *
+ * The service keeps writing to the alias (i.e. the previous index) while the
+ * new index is built, and each record is only read once. Therefore, records
+ * created or modified since the task started are indexed again, based on the
+ * modification timestamps of the known PIDs: once before the alias is switched,
+ * and once afterwards for changes which happened in between. After the switch,
+ * the service writes into the new index itself.
+ */
+public class CliTaskReindex implements ICliTask {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CliTaskReindex.class);
+    private static final int MAX_ATTEMPTS = 3;
+    /** Overlap of consecutive replays, to tolerate clock differences and truncated timestamps. */
+    private static final Duration REPLAY_OVERLAP = Duration.ofSeconds(5);
+
+    protected Stream<String> pids;
+    protected CliProperties cliProps;
+    protected ITypingService typingService;
+    protected Optional<PidRecordIndexManager> indexManager;
+    protected Optional<ElasticsearchOperations> operations;
+    protected Optional<KnownPidsDao> knownPids;
+
+    public CliTaskReindex(ConfigurableApplicationContext context, Stream<String> pids) {
+        this.pids = pids;
+        this.cliProps = context.getBean(CliProperties.class);
+        this.typingService = context.getBean(ITypingService.class);
+        this.indexManager = getBeanOptional(context, PidRecordIndexManager.class);
+        this.operations = getBeanOptional(context, ElasticsearchOperations.class);
+        this.knownPids = getBeanOptional(context, KnownPidsDao.class);
+    }
+
+    private static <T> Optional<T> getBeanOptional(ConfigurableApplicationContext context, Class<T> clazz) {
+        try {
+            return Optional.of(context.getBean(clazz));
+        } catch (NoSuchBeanDefinitionException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean process() throws IOException, InvalidConfigException {
+        if (indexManager.isEmpty() || operations.isEmpty()) {
+            throw new InvalidConfigException("Reindexing requires the search to be enabled (repo.search.enabled).");
+        }
+        PidRecordIndexManager manager = indexManager.get();
+        if (manager.hasUnversionedIndex() && !cliProps.isReindexDeletePrevious()) {
+            throw new InvalidConfigException(("Index %s is not versioned yet. Switching to a versioned index deletes it. "
+                + "Set pit.cli.reindex-delete-previous=true to allow this (e.g. after creating an Elasticsearch snapshot).")
+                .formatted(manager.getAlias()));
+        }
+        IndexCoordinates index = manager.createVersion();
+        IBulkIndexSink sink = new ElasticsearchBulkSink(operations.get(), index);
+
+        Optional<RateLimiter> rateLimiter = cliProps.getRateLimit() > 0
+                ? Optional.of(RateLimiter.create(cliProps.getRateLimit()))
+                : Optional.empty();
+        int workers = cliProps.getWorkers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // limits the amount of batches in memory
+        Semaphore inFlight = new Semaphore(workers * 2);
+        AtomicLong indexed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Instant started = Instant.now();
+
+        Iterator<List<String>> batches = Iterators.partition(pids.iterator(), cliProps.getBatchSize());
+        try {
+            while (batches.hasNext()) {
+                List<String> batch = batches.next();
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        BatchResult result = indexBatch(sink, batch, rateLimiter);
+                        failed.addAndGet(result.failed());
+                        LOG.info("Indexed {} records.", indexed.addAndGet(result.indexed()));
+                    } catch (RuntimeException e) {
+                        failed.addAndGet(batch.size());
+                        LOG.error("Failed to index batch of {} PIDs starting with {}.", batch.size(), batch.get(0), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Waiting for remaining batches. Indexed {} records so far.", indexed.get());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Reindexing was interrupted. The search still uses the previous index.", e);
+        }
+
+        LOG.info("Indexed {} records into {} in {}.",
+            indexed.get(), index.getIndexName(), Duration.between(started, Instant.now()));
+        if (failed.get() > 0) {
+            throw new IOException("%d records could not be indexed. The search still uses the previous index, %s can be deleted."
+                .formatted(failed.get(), index.getIndexName()));
+        }
+
+        // records changed while the index was built
+        Instant replayed = Instant.now();
+        int failedReplays = replayChanges(sink, started, rateLimiter);
+        if (failedReplays > 0) {
+            throw new IOException("%d changed records could not be indexed. The search still uses the previous index, %s can be deleted."
+                .formatted(failedReplays, index.getIndexName()));
+        }
+
+        manager.finishVersion(index, cliProps.getReindexReplicas(), cliProps.getReindexRefreshInterval());
+        List<String> previous = manager.switchAlias(index, cliProps.isReindexDeletePrevious());
+        // records changed between the replay and the switch
+        failedReplays = replayChanges(sink, replayed, rateLimiter);
+        if (failedReplays > 0) {
+            LOG.error("{} records changed during the switch could not be indexed. Index them again, e.g. by updating them.",
+                failedReplays);
+        }
+        if (cliProps.isReindexDeletePrevious()) {
+            previous.forEach(manager::delete);
+            LOG.info("Deleted previous indices {}.", previous);
+        } else if (!previous.isEmpty()) {
+            LOG.info("Kept previous indices {}. They can be deleted if the new index works as expected.", previous);
+        }
+        return true;
+    }
+
+    protected record BatchResult(int indexed, int failed) {}
+
+    /**
+     * Indexes all known PIDs which were modified since the given time again.
+     *
+     * @param since the time the previous read of the records started.
+     * @return the amount of records which failed.
+     */
+    protected int replayChanges(IBulkIndexSink sink, Instant since, Optional<RateLimiter> rateLimiter) {
+        if (knownPids.isEmpty()) {
+            LOG.warn("Known PIDs are not available. Records changed during the rebuild may be outdated in the new index.");
+            return 0;
+        }
+        List<String> changed = knownPids.get()
+            .findDistinctPidsByModifiedBetween(since.minus(REPLAY_OVERLAP), Instant.now().plus(REPLAY_OVERLAP))
+            .stream()
+            .map(KnownPid::getPid)
+            .toList();
+        int failed = 0;
+        int indexed = 0;
+        for (List<String> batch : Lists.partition(changed, cliProps.getBatchSize())) {
+            BatchResult result = indexBatch(sink, batch, rateLimiter);
+            indexed += result.indexed();
+            failed += result.failed();
+        }
+        LOG.info("Indexed {} records again which changed since {}.", indexed, since);
+        return failed;
+    }
+
+    /**
+     * Resolves and indexes a batch of PIDs. PIDs which do not exist (anymore)
+     * are skipped.
+     *
+     * @return the amount of records which were written or failed.
+     */
+    protected BatchResult indexBatch(IBulkIndexSink sink, List<String> batch, Optional<RateLimiter> rateLimiter) {
+        List<PidRecordElasticWrapper> documents = new ArrayList<>(batch.size());
+        int failedToResolve = 0;
+        for (String pid : batch) {
+            rateLimiter.ifPresent(RateLimiter::acquire);
+            try {
+                PIDRecord rec = typingService.queryAllProperties(pid);
+                documents.add(new PidRecordElasticWrapper(rec, typingService.getOperations()));
+            } catch (PidNotFoundException e) {
+                LOG.warn("Skipping PID {}, as it does not exist.", pid);
+            } catch (ExternalServiceException e) {
+                failedToResolve++;
+                LOG.error("Failed to query PID {}.", pid, e);
+            }
+        }
+        List<PidRecordElasticWrapper> pending = documents;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            Set<String> failedPids = sink.index(pending);
+            pending = pending.stream()
+                .filter(document -> failedPids.contains(document.getPid()))
+                .toList();
+        }
+        pending.forEach(document -> LOG.error("Failed to index PID {}.", document.getPid()));
+        return new BatchResult(documents.size() - pending.size(), failedToResolve + pending.size());
+    }
+}
@@ -0,0 +1,191 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.common.InvalidConfigException;
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+/**
+ * Registers all records of a snapshot (see {@link SnapshotManifest}) in the
+ * configured PID system. Records which already exist are updated.
+ *
+ * Parts are verified against the checksums in the manifest before anything is
+ * registered. Records not matching their own checksum are skipped. Records are
+ * registered in batches (pit.cli.batch-size) by several threads
+ * (pit.cli.workers). The progress is stored in a checkpoint file within the
+ * snapshot directory ({@link #CHECKPOINT_FILENAME}), so an interrupted restore
+ * continues where it stopped. It does not use pit.cli.checkpoint-file, as a
+ * checkpoint left by another task (or another snapshot) would skip records.
+ */
+public class CliTaskRestore implements ICliTask {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CliTaskRestore.class);
+    public static final String CHECKPOINT_FILENAME = "restore.checkpoint";
+
+    protected Path directory;
+    protected CliProperties cliProps;
+    protected ITypingService typingService;
+
+    public CliTaskRestore(ConfigurableApplicationContext context, Path directory) {
+        this.directory = directory;
+        this.cliProps = context.getBean(CliProperties.class);
+        this.typingService = context.getBean(ITypingService.class);
+    }
+
+    @Override
+    public boolean process() throws IOException, InvalidConfigException {
+        if (!Files.exists(directory.resolve(SnapshotManifest.FILENAME))) {
+            throw new InvalidConfigException("No snapshot manifest found in " + directory);
+        }
+        SnapshotManifest manifest = SnapshotManifest.readOrCreate(directory);
+        if (!manifest.isComplete()) {
+            LOG.warn("Snapshot in {} is incomplete. Restoring the {} completed parts.", directory, manifest.getParts().size());
+        }
+        for (SnapshotManifest.Part part : manifest.getParts()) {
+            String actual = SnapshotManifest.sha256(directory.resolve(part.file()));
+            if (!actual.equals(part.sha256())) {
+                throw new IOException("Checksum mismatch for %s: expected %s, got %s."
+                    .formatted(part.file(), part.sha256(), actual));
+            }
+        }
+
+        Checkpoint checkpoint = Checkpoint.of(directory.resolve(CHECKPOINT_FILENAME).toString());
+        ObjectMapper mapper = Application.jsonObjectMapper();
+        int workers = cliProps.getWorkers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // limits the amount of batches in memory
+        Semaphore inFlight = new Semaphore(workers * 2);
+        AtomicLong failed = new AtomicLong();
+        AtomicLong restored = new AtomicLong();
+        Instant started = Instant.now();
+
+        long toSkip = checkpoint.getStart();
+        long batchIndex = 0;
+        List<SnapshotManifest.Entry> batch = new ArrayList<>(cliProps.getBatchSize());
+        try {
+            for (SnapshotManifest.Part part : manifest.getParts()) {
+                if (toSkip >= part.records()) {
+                    toSkip -= part.records();
+                    continue;
+                }
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(directory.resolve(part.file()))),
+                        StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (toSkip > 0) {
+                            toSkip--;
+                            continue;
+                        }
+                        batch.add(mapper.readValue(line, SnapshotManifest.Entry.class));
+                        if (batch.size() >= cliProps.getBatchSize()) {
+                            submit(executor, inFlight, batch, batchIndex++, checkpoint, failed, restored);
+                            batch = new ArrayList<>(cliProps.getBatchSize());
+                        }
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(executor, inFlight, batch, batchIndex, checkpoint, failed, restored);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Waiting for remaining batches. Restored {} records so far.", restored.get());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Restore was interrupted.", e);
+        }
+
+        LOG.info("Restored {} records from {} in {}.",
+            restored.get(), directory, Duration.between(started, Instant.now()));
+        if (failed.get() == 0) {
+            checkpoint.clear();
+        } else {
+            LOG.error("{} records could not be restored. Run the task again to retry them.", failed.get());
+        }
+        return true;
+    }
+
+    private void submit(
+        ExecutorService executor,
+        Semaphore inFlight,
+        List<SnapshotManifest.Entry> batch,
+        long index,
+        Checkpoint checkpoint,
+        AtomicLong failed,
+        AtomicLong restored
+    ) throws InterruptedException {
+        inFlight.acquire();
+        executor.execute(() -> {
+            try {
+                int failedInBatch = 0;
+                for (SnapshotManifest.Entry entry : batch) {
+                    if (!restore(entry)) {
+                        failedInBatch++;
+                    }
+                }
+                if (failedInBatch == 0) {
+                    checkpoint.completed(index, batch.size());
+                } else {
+                    // keeps the checkpoint before this batch, so the next run retries it
+                    failed.addAndGet(failedInBatch);
+                }
+                restored.addAndGet(batch.size() - failedInBatch);
+                LOG.info("Restored {} records.", restored.get());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Registers or updates a single record.
+     *
+     * @param entry the record and its checksum.
+     * @return false, if the record is corrupt or could not be registered.
+     */
+    protected boolean restore(SnapshotManifest.Entry entry) {
+        if (!entry.matchesChecksum()) {
+            LOG.error("Skipping corrupt record {}.", entry.record() == null ? null : entry.record().getPid());
+            return false;
+        }
+        PIDRecord pidRecord = entry.record();
+        try {
+            if (typingService.isIdentifierRegistered(pidRecord.getPid())) {
+                typingService.updatePID(pidRecord);
+            } else {
+                typingService.registerPidUnchecked(pidRecord);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            LOG.error("Failed to restore PID {}.", pidRecord.getPid(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterators;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+/**
+ * Writes the full records of all PIDs of a source into a snapshot directory
+ * (see {@link SnapshotManifest}), which can be restored into another PID system
+ * using {@link CliTaskRestore}.
+ * 
+ * The directory is given by pit.cli.output (or generated from the current
+ * time). Records are resolved in parallel and written in parts of
+ * pit.cli.snapshot-part-size PIDs. If the task is started again with the same
+ * directory, it continues after the last PID of the last completed part. This
+ * requires the source to deliver the PIDs in ascending order, like all sources
+ * in {@link PidSource} do.
+ */
+public class CliTaskSnapshot implements ICliTask {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CliTaskSnapshot.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    protected Stream<String> pids;
+    protected CliProperties cliProps;
+    protected ITypingService typingService;
+
+    public CliTaskSnapshot(ConfigurableApplicationContext context, Stream<String> pids) {
+        this.pids = pids;
+        this.cliProps = context.getBean(CliProperties.class);
+        this.typingService = context.getBean(ITypingService.class);
+    }
+
+    @Override
+    public boolean process() throws IOException {
+        Path directory = Paths.get(cliProps.getOutput().isBlank() ? createDirectoryName() : cliProps.getOutput());
+        Files.createDirectories(directory);
+        SnapshotManifest manifest = SnapshotManifest.readOrCreate(directory);
+        if (manifest.isComplete()) {
+            LOG.info("Snapshot in {} is already complete.", directory);
+            return true;
+        }
+        Stream<String> remaining = pids;
+        if (!manifest.getParts().isEmpty()) {
+            String lastPid = manifest.lastPid().orElseThrow(() -> new IOException(
+                "Snapshot in %s does not record its last PID and can not be continued. Use a new directory."
+                    .formatted(directory)));
+            LOG.info("Continuing snapshot in {} after PID {} ({} PIDs).", directory, lastPid, manifest.countPids());
+            remaining = pids.dropWhile(pid -> pid.compareTo(lastPid) <= 0);
+        }
+
+        Instant started = Instant.now();
+        ObjectMapper mapper = Application.jsonObjectMapper();
+        Iterator<List<String>> parts = Iterators.partition(
+            remaining.iterator(),
+            cliProps.getSnapshotPartSize());
+        try (OrderedRecordResolver resolver = new OrderedRecordResolver(typingService, cliProps)) {
+            while (parts.hasNext()) {
+                List<String> partPids = parts.next();
+                String filename = "part-%05d.ndjson.gz".formatted(manifest.getParts().size());
+                Path file = directory.resolve(filename);
+                long records;
+                try (Writer writer = new OutputStreamWriter(
+                        new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE),
+                        StandardCharsets.UTF_8)) {
+                    records = resolver.resolveInOrder(partPids.iterator(), pidRecord -> {
+                        writer.write(mapper.writeValueAsString(SnapshotManifest.Entry.of(pidRecord)));
+                        writer.write('\n');
+                    });
+                }
+                manifest.getParts().add(new SnapshotManifest.Part(
+                    filename,
+                    partPids.size(),
+                    partPids.get(partPids.size() - 1),
+                    records,
+                    SnapshotManifest.sha256(file)));
+                manifest.write(directory);
+                LOG.info("Wrote {} with {} records. {} records in total.", filename, records, manifest.countRecords());
+            }
+        }
+        manifest.setComplete(true);
+        manifest.write(directory);
+        LOG.info("Snapshot of {} records (from {} PIDs) written to {} in {}.",
+            manifest.countRecords(), manifest.countPids(), directory, Duration.between(started, Instant.now()));
+        return true;
+    }
+
+    protected String createDirectoryName() {
+        String date = ZonedDateTime
+                .now(ZoneId.systemDefault())
+                .toString()
+                .replace(":", ".")
+                .replace("[", "(")
+                .replace("]", ")")
+                .replace("/", "-")
+                .replace("+", "-");
+        return String.format("snapshot-%s", date);
+    }
+}
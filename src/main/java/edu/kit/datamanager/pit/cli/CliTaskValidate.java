@@ -0,0 +1,159 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+import edu.kit.datamanager.pit.common.RecordValidationException;
+import edu.kit.datamanager.pit.configuration.ApplicationProperties;
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+/**
+ * Validates the records of all PIDs of a source against their current
+ * profiles, e.g. after a profile changed in the type registry.
+ * 
+ * Records are resolved and validated by several threads (pit.cli.workers),
+ * with the configured rate limit (pit.cli.rate-limit). All threads use the
+ * same type cache. The result is written as a JSON report (pit.cli.output),
+ * grouping failures by profile and attribute (see {@link ValidationReport}).
+ */
+public class CliTaskValidate implements ICliTask {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CliTaskValidate.class);
+    private static final long PROGRESS_INTERVAL = 10_000;
+
+    protected Stream<String> pids;
+    protected CliProperties cliProps;
+    protected ApplicationProperties appProps;
+    protected ITypingService typingService;
+
+    public CliTaskValidate(ConfigurableApplicationContext context, Stream<String> pids) {
+        this.pids = pids;
+        this.cliProps = context.getBean(CliProperties.class);
+        this.appProps = context.getBean(ApplicationProperties.class);
+        this.typingService = context.getBean(ITypingService.class);
+    }
+
+    @Override
+    public boolean process() throws IOException {
+        Path reportFile = Paths.get(cliProps.getOutput().isBlank() ? createFilename() : cliProps.getOutput());
+        Path parent = reportFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        ValidationReport report = validateAll();
+        report.write(reportFile);
+        LOG.info("Validated {} records in {}: {} valid, {} invalid, {} not resolvable. Report: {}",
+            report.getValid() + report.getInvalid(),
+            Duration.between(report.getStarted(), report.getFinished()),
+            report.getValid(),
+            report.getInvalid(),
+            report.getUnresolvable(),
+            reportFile);
+        return true;
+    }
+
+    protected ValidationReport validateAll() throws IOException {
+        ValidationReport report = new ValidationReport();
+        Optional<RateLimiter> rateLimiter = cliProps.getRateLimit() > 0
+                ? Optional.of(RateLimiter.create(cliProps.getRateLimit()))
+                : Optional.empty();
+        int workers = cliProps.getWorkers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // bounds the amount of PIDs waiting for a worker
+        Semaphore inFlight = new Semaphore(workers * 4);
+        long submitted = 0;
+        try {
+            for (Iterator<String> iter = pids.iterator(); iter.hasNext(); ) {
+                String pid = iter.next();
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        rateLimiter.ifPresent(RateLimiter::acquire);
+                        validate(pid, report);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (++submitted % PROGRESS_INTERVAL == 0) {
+                    LOG.info("Validating: {} PIDs submitted, {} invalid so far.", submitted, report.getInvalid());
+                }
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Waiting for remaining validations.");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Validation was interrupted.", e);
+        }
+        report.finish();
+        return report;
+    }
+
+    private void validate(String pid, ValidationReport report) {
+        PIDRecord pidRecord;
+        try {
+            pidRecord = typingService.queryAllProperties(pid);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not resolve PID {}.", pid, e);
+            pidRecord = null;
+        }
+        if (pidRecord == null) {
+            report.unresolvable();
+            return;
+        }
+        try {
+            typingService.validate(pidRecord);
+            report.valid();
+        } catch (RecordValidationException e) {
+            LOG.debug("Record {} is invalid: {}", pid, e.getReason());
+            report.invalid(pid, profileOf(pidRecord), e.getAttribute(), e.getReason());
+        } catch (RuntimeException e) {
+            // e.g. the type registry is not available
+            LOG.error("Could not validate PID {}.", pid, e);
+            report.invalid(pid, profileOf(pidRecord), null, e.getMessage());
+        }
+    }
+
+    private String profileOf(PIDRecord pidRecord) {
+        String profileKey = appProps.getProfileKey();
+        if (!pidRecord.hasProperty(profileKey)) {
+            return "";
+        }
+        return String.join(", ", pidRecord.getPropertyValues(profileKey));
+    }
+
+    protected String createFilename() {
+        String date = ZonedDateTime
+                .now(ZoneId.systemDefault())
+                .toString()
+                .replace(":", ".")
+                .replace("[", "(")
+                .replace("]", ")")
+                .replace("/", "-")
+                .replace("+", "-");
+        return String.format("validation-%s.json", date);
+    }
+}
@@ -1,33 +1,64 @@
 package edu.kit.datamanager.pit.cli;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Iterator;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.configuration.CliProperties.OutputFormat;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+/**
+ * Writes the PIDs of a source into a file, either as a plain list (CSV) or as
+ * full records (NDJSON), optionally gzip compressed.
+ *
+ * Full records are resolved in parallel (pit.cli.workers, pit.cli.rate-limit),
+ * but written in the order of the source (see {@link OrderedRecordResolver}).
+ */
 public class CliTaskWriteFile implements ICliTask {
 
     private static final Logger LOG = LoggerFactory.getLogger(CliTaskWriteFile.class);
+    private static final int BUFFER_SIZE = 1 << 16;
 
     protected Stream<String> pids;
+    protected CliProperties cliProps;
+    protected ITypingService typingService;
 
     public CliTaskWriteFile(Stream<String> pids) {
         this.pids = pids;
+        this.cliProps = new CliProperties();
+    }
+
+    public CliTaskWriteFile(ConfigurableApplicationContext context, Stream<String> pids) {
+        this.pids = pids;
+        this.cliProps = context.getBean(CliProperties.class);
+        this.typingService = context.getBean(ITypingService.class);
     }
 
     @Override
     public boolean process() throws IOException {
-        String filename = createFilename();
-        
+        String filename = cliProps.getOutput().isBlank() ? createFilename() : cliProps.getOutput();
+
         Path path = Paths.get(filename);
         ensureFileExists(path);
 
@@ -36,16 +67,59 @@ public class CliTaskWriteFile implements ICliTask {
     }
 
     protected void writeToFile(Path path) throws IOException {
+        Instant started = Instant.now();
+        long written;
+        try (Writer writer = openWriter(path)) {
+            if (cliProps.getFormat() == OutputFormat.NDJSON) {
+                written = writeRecords(writer);
+            } else {
+                written = writePids(writer);
+            }
+        }
+        Duration duration = Duration.between(started, Instant.now());
+        double perSecond = written / Math.max(0.001, duration.toMillis() / 1000.0);
+        LOG.info("Wrote {} entries to {} in {} ({} per second, {} bytes).",
+            written, path, duration, Math.round(perSecond), Files.size(path));
+    }
+
+    private Writer openWriter(Path path) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+        if (cliProps.isCompress()) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    private long writePids(Writer writer) throws IOException {
+        long written = 0;
         for (Iterator<String> iter = pids.iterator(); iter.hasNext(); ) {
             String pid = iter.next();
-            LOG.info("Storing into CSV: {}", pid);
-            Files.writeString(path, pid + "\n", StandardOpenOption.APPEND);
+            LOG.debug("Storing into CSV: {}", pid);
+            writer.write(pid);
+            writer.write('\n');
+            written++;
+        }
+        return written;
+    }
+
+    private long writeRecords(Writer writer) throws IOException {
+        if (typingService == null) {
+            throw new IOException("Writing full records requires the typing service.");
+        }
+        ObjectMapper mapper = Application.jsonObjectMapper();
+        try (OrderedRecordResolver resolver = new OrderedRecordResolver(typingService, cliProps)) {
+            return resolver.resolveInOrder(pids.iterator(), pidRecord -> {
+                writer.write(mapper.writeValueAsString(pidRecord));
+                writer.write('\n');
+            });
         }
     }
 
     protected void ensureFileExists(Path path) throws IOException {
-        File f = path.toFile();
-        f.createNewFile();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
     }
 
     protected String createFilename() {
@@ -57,6 +131,10 @@ public class CliTaskWriteFile implements ICliTask {
                 .replace("]", ")")
                 .replace("/", "-")
                 .replace("+", "-");
-        return String.format("%s.%s", date, "csv");
+        String extension = cliProps.getFormat() == OutputFormat.NDJSON ? "ndjson" : "csv";
+        if (cliProps.isCompress()) {
+            extension += ".gz";
+        }
+        return String.format("%s.%s", date, extension);
     }
 }
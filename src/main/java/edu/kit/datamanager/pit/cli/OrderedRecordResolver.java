@@ -0,0 +1,108 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.function.FailableConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pidsystem.IIdentifierSystem;
+
+/**
+ * Resolves the records of a PID source in parallel, but hands them to the
+ * consumer in the order of the source.
+ * 
+ * At most a few records per worker are resolved ahead of the one which is
+ * consumed next, so memory usage does not depend on the size of the source.
+ * PIDs which can not be resolved are logged and skipped.
+ */
+class OrderedRecordResolver implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderedRecordResolver.class);
+
+    private final IIdentifierSystem identifierSystem;
+    private final Optional<RateLimiter> rateLimiter;
+    private final ExecutorService executor;
+    private final int window;
+
+    /**
+     * @param identifierSystem the system to resolve the records from.
+     * @param props            the amount of workers and the rate limit.
+     */
+    OrderedRecordResolver(IIdentifierSystem identifierSystem, CliProperties props) {
+        this.identifierSystem = identifierSystem;
+        this.rateLimiter = props.getRateLimit() > 0
+                ? Optional.of(RateLimiter.create(props.getRateLimit()))
+                : Optional.empty();
+        this.executor = Executors.newFixedThreadPool(props.getWorkers());
+        this.window = props.getWorkers() * 4;
+    }
+
+    /**
+     * @param pids     the PIDs to resolve.
+     * @param consumer receives the resolved records, in the order of the PIDs.
+     * @return the amount of records given to the consumer.
+     * @throws IOException if the consumer failed or the thread was interrupted.
+     */
+    long resolveInOrder(Iterator<String> pids, FailableConsumer<PIDRecord, IOException> consumer) throws IOException {
+        Deque<Future<Optional<PIDRecord>>> pending = new ArrayDeque<>(window);
+        long consumed = 0;
+        while (pids.hasNext()) {
+            String pid = pids.next();
+            if (pending.size() >= window) {
+                consumed += consumeNext(pending, consumer);
+            }
+            pending.add(executor.submit(() -> resolve(pid)));
+        }
+        while (!pending.isEmpty()) {
+            consumed += consumeNext(pending, consumer);
+        }
+        return consumed;
+    }
+
+    private Optional<PIDRecord> resolve(String pid) {
+        rateLimiter.ifPresent(RateLimiter::acquire);
+        try {
+            return Optional.ofNullable(identifierSystem.queryAllProperties(pid));
+        } catch (RuntimeException e) {
+            LOG.error("Failed to resolve PID {}. Skipping it.", pid, e);
+            return Optional.empty();
+        }
+    }
+
+    private int consumeNext(
+        Deque<Future<Optional<PIDRecord>>> pending,
+        FailableConsumer<PIDRecord, IOException> consumer
+    ) throws IOException {
+        try {
+            Optional<PIDRecord> pidRecord = pending.removeFirst().get();
+            if (pidRecord.isEmpty()) {
+                return 0;
+            }
+            consumer.accept(pidRecord.get());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while resolving records.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to resolve record.", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -11,6 +11,9 @@ import edu.kit.datamanager.pit.pidsystem.IIdentifierSystem;
 
 /**
  * All static methods are sources for PIDs. Used in Command Line Tasks.
+ * 
+ * The sources deliver the PIDs in ascending (natural String) order. This way,
+ * an interrupted task can resume after the last PID it processed.
  */
 public class PidSource {
 
@@ -28,7 +31,8 @@ public class PidSource {
                 .findFirst()
                 .orElseThrow()
                 .resolveAllPidsOfPrefix()
-                .stream();
+                .stream()
+                .sorted();
     }
 
     public static Stream<String> fromKnown(ConfigurableApplicationContext context) {
@@ -36,7 +40,8 @@ public class PidSource {
                 .getBean(KnownPidsDao.class)
                 .findAll()
                 .stream()
-                .map(e -> e.getPid());
+                .map(e -> e.getPid())
+                .sorted();
     }
 
 }
@@ -0,0 +1,162 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+
+/**
+ * Describes a snapshot of records, written by {@link CliTaskSnapshot} and read
+ * by {@link CliTaskRestore}.
+ * 
+ * A snapshot is a directory containing this manifest ({@value #FILENAME}) and
+ * the parts listed in it. Each part is a gzip compressed file with one
+ * {@link Entry} per line, as JSON. The manifest is updated after each completed
+ * part, so an interrupted snapshot can be continued after the last PID of the
+ * last part.
+ */
+public class SnapshotManifest {
+
+    public static final String FILENAME = "manifest.json";
+    private static final ObjectMapper MAPPER = Application.jsonObjectMapper();
+
+    /**
+     * A line within a part.
+     * 
+     * @param checksum the etag of the record at the time of the snapshot.
+     * @param record   the record.
+     */
+    public record Entry(String checksum, PIDRecord record) {
+        public static Entry of(PIDRecord pidRecord) {
+            return new Entry(pidRecord.getEtag(), pidRecord);
+        }
+
+        /**
+         * @return true, if the record still matches its checksum.
+         */
+        public boolean matchesChecksum() {
+            return record != null && record.getEtag().equals(checksum);
+        }
+    }
+
+    /**
+     * A completed part of the snapshot.
+     * 
+     * @param file    the filename, relative to the snapshot directory.
+     * @param pids    the amount of PIDs of the source covered by this part.
+     * @param lastPid the last (greatest) PID of the source covered by this part.
+     * @param records the amount of records within the part. Less than the amount
+     *                of PIDs if some PIDs could not be resolved.
+     * @param sha256  the SHA-256 checksum of the file.
+     */
+    public record Part(String file, long pids, String lastPid, long records, String sha256) {}
+
+    private int version = 1;
+    private Instant created = Instant.now();
+    private boolean complete = false;
+    private List<Part> parts = new ArrayList<>();
+
+    /**
+     * @param directory the snapshot directory.
+     * @return the manifest within the directory, or a new one if there is none.
+     * @throws IOException if the manifest exists but can not be read.
+     */
+    public static SnapshotManifest readOrCreate(Path directory) throws IOException {
+        Path file = directory.resolve(FILENAME);
+        if (!Files.exists(file)) {
+            return new SnapshotManifest();
+        }
+        return MAPPER.readValue(file.toFile(), SnapshotManifest.class);
+    }
+
+    /**
+     * Writes the manifest into the given directory, replacing the previous one
+     * atomically.
+     */
+    public void write(Path directory) throws IOException {
+        Path file = directory.resolve(FILENAME);
+        Path tmp = directory.resolve(FILENAME + ".tmp");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), this);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param file a file.
+     * @return the SHA-256 checksum of the file, as hex string.
+     */
+    public static String sha256(Path file) throws IOException {
+        try (HashingInputStream in = new HashingInputStream(Hashing.sha256(), Files.newInputStream(file))) {
+            ByteStreams.exhaust(in);
+            return in.hash().toString();
+        }
+    }
+
+    /**
+     * @return the amount of source PIDs covered by all completed parts.
+     */
+    public long countPids() {
+        return parts.stream().mapToLong(Part::pids).sum();
+    }
+
+    /**
+     * @return the last PID of the source covered by the completed parts. Empty
+     *         if there are no parts, or if the manifest was written before
+     *         parts recorded their last PID.
+     */
+    public Optional<String> lastPid() {
+        return parts.isEmpty()
+            ? Optional.empty()
+            : Optional.ofNullable(parts.get(parts.size() - 1).lastPid());
+    }
+
+    /**
+     * @return the amount of records within all completed parts.
+     */
+    public long countRecords() {
+        return parts.stream().mapToLong(Part::records).sum();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+
+    public void setCreated(Instant created) {
+        this.created = created;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    public void setParts(List<Part> parts) {
+        this.parts = parts;
+    }
+}
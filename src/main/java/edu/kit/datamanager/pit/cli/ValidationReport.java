@@ -0,0 +1,142 @@
+package edu.kit.datamanager.pit.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.kit.datamanager.pit.Application;
+
+/**
+ * Collects the results of a bulk validation (see {@link CliTaskValidate}).
+ * 
+ * Failures are grouped by profile and attribute. Per group, only the amount of
+ * failures, the first reason and a few sample PIDs are kept, so the memory
+ * consumption does not depend on the amount of records. Thread-safe.
+ */
+public class ValidationReport {
+
+    /** Amount of sample PIDs kept per group. */
+    static final int SAMPLES = 10;
+
+    /**
+     * A group of failures with the same profile and attribute.
+     */
+    public static class Group {
+        private final String profile;
+        private final String attribute;
+        private final String exampleReason;
+        private final AtomicLong count = new AtomicLong();
+        private final List<String> samplePids = new ArrayList<>(SAMPLES);
+
+        Group(String profile, String attribute, String exampleReason) {
+            this.profile = profile;
+            this.attribute = attribute;
+            this.exampleReason = exampleReason;
+        }
+
+        synchronized void add(String pid) {
+            count.incrementAndGet();
+            if (samplePids.size() < SAMPLES) {
+                samplePids.add(pid);
+            }
+        }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public String getExampleReason() {
+            return exampleReason;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public synchronized List<String> getSamplePids() {
+            return List.copyOf(samplePids);
+        }
+    }
+
+    private final Instant started = Instant.now();
+    private Instant finished;
+    private final AtomicLong valid = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong unresolvable = new AtomicLong();
+    private final Map<List<String>, Group> groups = new ConcurrentHashMap<>();
+
+    void valid() {
+        valid.incrementAndGet();
+    }
+
+    void unresolvable() {
+        unresolvable.incrementAndGet();
+    }
+
+    /**
+     * @param pid       the PID of the invalid record.
+     * @param profile   the profile(s) of the record.
+     * @param attribute the attribute causing the failure, or null.
+     * @param reason    the description of the failure.
+     */
+    void invalid(String pid, String profile, String attribute, String reason) {
+        invalid.incrementAndGet();
+        String attributeKey = attribute == null ? "" : attribute;
+        groups.computeIfAbsent(
+                List.of(profile, attributeKey),
+                key -> new Group(profile, attributeKey, reason))
+            .add(pid);
+    }
+
+    void finish() {
+        this.finished = Instant.now();
+    }
+
+    public Instant getStarted() {
+        return started;
+    }
+
+    public Instant getFinished() {
+        return finished;
+    }
+
+    public long getValid() {
+        return valid.get();
+    }
+
+    public long getInvalid() {
+        return invalid.get();
+    }
+
+    public long getUnresolvable() {
+        return unresolvable.get();
+    }
+
+    /**
+     * @return the groups of failures, the largest first.
+     */
+    public List<Group> getFailures() {
+        return groups.values().stream()
+                .sorted(Comparator.comparingLong(Group::getCount).reversed())
+                .toList();
+    }
+
+    /**
+     * Writes this report as JSON.
+     */
+    public void write(Path file) throws IOException {
+        Application.jsonObjectMapper()
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(file.toFile(), this);
+    }
+}
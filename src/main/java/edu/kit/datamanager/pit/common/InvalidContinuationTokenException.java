@@ -0,0 +1,18 @@
+package edu.kit.datamanager.pit.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Indicates that a continuation token for keyset pagination could not be read
+ * or does not fit to the request.
+ */
+public class InvalidContinuationTokenException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+    private static final HttpStatus HTTP_STATUS = HttpStatus.BAD_REQUEST;
+
+    public InvalidContinuationTokenException(String reason) {
+        super(HTTP_STATUS, "Invalid continuation token. " + reason);
+    }
+}
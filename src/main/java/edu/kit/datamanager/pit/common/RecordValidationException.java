@@ -17,18 +17,40 @@ public class RecordValidationException extends ResponseStatusException {
 
 	// For cases in which the PID record shold be appended to the error response.
 	private final transient PIDRecord pidRecord;
+	// The attribute(s) which caused the failure, if the failure is related to attributes.
+	private final String attribute;
 
 	public RecordValidationException(PIDRecord pidRecord) {
 		super(HTTP_STATUS, VALIDATION_OF_RECORD + pidRecord.getPid() + " failed.");
 		this.pidRecord = pidRecord;
+		this.attribute = null;
 	}
 
 	public RecordValidationException(PIDRecord pidRecord, String reason) {
+		this(pidRecord, null, reason);
+	}
+
+	/**
+	 * @param pidRecord the invalid record.
+	 * @param attribute the attribute (or a comma separated list of attributes)
+	 *                  which caused the failure.
+	 * @param reason    the description of the failure.
+	 */
+	public RecordValidationException(PIDRecord pidRecord, String attribute, String reason) {
 		super(HTTP_STATUS, VALIDATION_OF_RECORD + pidRecord.getPid() + " failed. Reason:\n" + reason);
 		this.pidRecord = pidRecord;
+		this.attribute = attribute;
 	}
 
 	public PIDRecord getPidRecord() {
 		return pidRecord;
 	}
+
+	/**
+	 * @return the attribute(s) which caused the failure, or null if the failure
+	 *         is not related to specific attributes.
+	 */
+	public String getAttribute() {
+		return attribute;
+	}
 }
@@ -0,0 +1,18 @@
+package edu.kit.datamanager.pit.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Indicates that a search was requested, but the search (Elasticsearch) is not
+ * enabled in this instance.
+ */
+public class SearchNotEnabledException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+    private static final HttpStatus HTTP_STATUS = HttpStatus.NOT_IMPLEMENTED;
+
+    public SearchNotEnabledException() {
+        super(HTTP_STATUS, "Search is not enabled in this instance (repo.search.enabled).");
+    }
+}
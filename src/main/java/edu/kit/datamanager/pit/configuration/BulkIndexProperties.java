@@ -0,0 +1,138 @@
+package edu.kit.datamanager.pit.configuration;
+
+import jakarta.validation.constraints.Min;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.validation.annotation.Validated;
+
+import edu.kit.datamanager.pit.elasticsearch.BulkIndexer;
+import edu.kit.datamanager.pit.elasticsearch.ElasticsearchBulkSink;
+import edu.kit.datamanager.pit.elasticsearch.IBulkIndexSink;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configures the {@link BulkIndexer}, which indexes records in Elasticsearch
+ * in batches instead of one request per record.
+ *
+ * Only active if the search (repo.search.enabled) and bulk indexing are
+ * enabled.
+ */
+@Validated
+@ConfigurationProperties("pit.elastic.bulk")
+@Configuration
+public class BulkIndexProperties {
+
+    private static final String IS_ACTIVE = "${repo.search.enabled:false} and ${pit.elastic.bulk.enabled:false}";
+
+    private boolean enabled = false;
+
+    /** Maximum amount of documents per bulk request. */
+    @Min(1)
+    private int batchSize = 500;
+
+    /** Maximum time a document waits for its batch to be filled. */
+    @Min(1)
+    private long flushIntervalMs = 1000;
+
+    /** Maximum amount of queued documents. */
+    @Min(1)
+    private int capacity = 10_000;
+
+    /**
+     * How long to wait for space in a full queue before indexing a document
+     * directly.
+     */
+    @Min(0)
+    private long offerTimeoutMs = 5000;
+
+    /** Attempts per document, including the first one. */
+    @Min(1)
+    private int maxAttempts = 5;
+
+    /** Wait time after a failed request. Doubles with every further failure. */
+    @Min(0)
+    private long retryBackoffMs = 500;
+
+    @Min(0)
+    private long maxBackoffMs = 30_000;
+
+    @Bean
+    @ConditionalOnExpression(IS_ACTIVE)
+    public IBulkIndexSink bulkIndexSink(ElasticsearchOperations operations) {
+        return new ElasticsearchBulkSink(operations);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnExpression(IS_ACTIVE)
+    public BulkIndexer bulkIndexer(IBulkIndexSink sink, MeterRegistry registry) {
+        return new BulkIndexer(sink, this, registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getOfferTimeoutMs() {
+        return offerTimeoutMs;
+    }
+
+    public void setOfferTimeoutMs(long offerTimeoutMs) {
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+}
@@ -0,0 +1,178 @@
+package edu.kit.datamanager.pit.configuration;
+
+import jakarta.validation.constraints.Min;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configures the command line tasks (see {@link edu.kit.datamanager.pit.cli}).
+ */
+@Validated
+@ConfigurationProperties("pit.cli")
+@Configuration
+public class CliProperties {
+
+    /**
+     * Amount of threads processing batches of PIDs in parallel.
+     */
+    @Min(1)
+    private int workers = 4;
+
+    /**
+     * Amount of PIDs processed (stored, indexed) at once.
+     */
+    @Min(1)
+    private int batchSize = 500;
+
+    /**
+     * Maximum amount of records resolved per second from the PID system. Zero or
+     * less disables the limit.
+     */
+    private double rateLimit = 0;
+
+    /**
+     * File to store the progress in. If a task is interrupted, the next run with
+     * the same file skips the PIDs which were already processed. The file is
+     * removed after a successful run. Empty to disable checkpoints.
+     */
+    private String checkpointFile = "";
+
+    /**
+     * The file the "write-file" task writes to. Empty to generate a name from
+     * the current time.
+     */
+    private String output = "";
+
+    /**
+     * What the "write-file" task writes for each PID.
+     */
+    private OutputFormat format = OutputFormat.CSV;
+
+    /**
+     * If true, the "write-file" task compresses its output with gzip.
+     */
+    private boolean compress = false;
+
+    /**
+     * Amount of PIDs per part of a snapshot. A snapshot can be continued after
+     * the last completed part.
+     */
+    @Min(1)
+    private int snapshotPartSize = 100_000;
+
+    /**
+     * Amount of replicas of a new index, set by the "reindex" task after all
+     * records were written.
+     */
+    @Min(0)
+    private int reindexReplicas = 1;
+
+    /**
+     * Refresh interval of a new index, set by the "reindex" task after all
+     * records were written.
+     */
+    private String reindexRefreshInterval = "1s";
+
+    /**
+     * If true, the "reindex" task deletes the previous index after switching to
+     * the new one. Otherwise, it is kept to be able to switch back.
+     */
+    private boolean reindexDeletePrevious = false;
+
+    public enum OutputFormat {
+        /** One PID per line. */
+        CSV,
+        /** One full record per line, as JSON. */
+        NDJSON
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(double rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(OutputFormat format) {
+        this.format = format;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public int getSnapshotPartSize() {
+        return snapshotPartSize;
+    }
+
+    public void setSnapshotPartSize(int snapshotPartSize) {
+        this.snapshotPartSize = snapshotPartSize;
+    }
+
+    public int getReindexReplicas() {
+        return reindexReplicas;
+    }
+
+    public void setReindexReplicas(int reindexReplicas) {
+        this.reindexReplicas = reindexReplicas;
+    }
+
+    public String getReindexRefreshInterval() {
+        return reindexRefreshInterval;
+    }
+
+    public void setReindexRefreshInterval(String reindexRefreshInterval) {
+        this.reindexRefreshInterval = reindexRefreshInterval;
+    }
+
+    public boolean isReindexDeletePrevious() {
+        return reindexDeletePrevious;
+    }
+
+    public void setReindexDeletePrevious(boolean reindexDeletePrevious) {
+        this.reindexDeletePrevious = reindexDeletePrevious;
+    }
+}
@@ -0,0 +1,124 @@
+package edu.kit.datamanager.pit.configuration;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.util.ExistenceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configures the {@link ExistenceFilter} in front of the known PIDs.
+ * 
+ * If enabled, the filter is loaded in the background after startup. Until
+ * then, every check is done using the database.
+ * 
+ * The filter only decides whether a known PID is inserted right away or looked
+ * up first. The database rejects inserts of existing PIDs, so a wrong answer
+ * (e.g. as another instance stored the PID) only costs an additional query.
+ * Stores which have to answer "not stored" correctly (like the PIDs of the
+ * local PID system) can not use such a filter.
+ */
+@Validated
+@ConfigurationProperties("pit.existence-filter")
+@Configuration
+public class ExistenceFilterProperties {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExistenceFilterProperties.class);
+
+    public static final String KNOWN_PIDS = "knownPidsFilter";
+
+    private boolean enabled = false;
+
+    /**
+     * The amount of PIDs the filter is sized for. If the amount is exceeded, the
+     * false positive probability grows.
+     */
+    @Min(1)
+    private long expectedPids = 10_000_000;
+
+    @DecimalMin("0.000001")
+    @DecimalMax("0.5")
+    private double falsePositiveProbability = 0.01;
+
+    @Autowired
+    private KnownPidsDao knownPidsDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Bean(name = KNOWN_PIDS)
+    public ExistenceFilter knownPidsFilter(MeterRegistry registry) {
+        return createFilter("known-pids", registry);
+    }
+
+    private ExistenceFilter createFilter(String name, MeterRegistry registry) {
+        if (!enabled) {
+            return ExistenceFilter.disabled();
+        }
+        return new ExistenceFilter(name, expectedPids, falsePositiveProbability, registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFilters(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        ExistenceFilter known = event.getApplicationContext().getBean(KNOWN_PIDS, ExistenceFilter.class);
+        Thread.ofPlatform().name("existence-filter-loader").daemon().start(
+            () -> load(known, "known PIDs", () -> knownPidsDao.streamAllPids()));
+    }
+
+    private void load(ExistenceFilter filter, String name, Supplier<Stream<String>> source) {
+        long start = System.currentTimeMillis();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> pids = source.get()) {
+                    filter.load(pids);
+                }
+            });
+            LOG.info("Loaded existence filter for {} in {} ms.", name, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOG.error("Could not load existence filter for {}. It will not be used.", name, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedPids() {
+        return expectedPids;
+    }
+
+    public void setExpectedPids(long expectedPids) {
+        this.expectedPids = expectedPids;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+}
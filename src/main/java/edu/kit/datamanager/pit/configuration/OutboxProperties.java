@@ -0,0 +1,104 @@
+package edu.kit.datamanager.pit.configuration;
+
+import jakarta.validation.constraints.Min;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configures how side effects of record operations (storing known PIDs,
+ * indexing in Elasticsearch, messaging) are processed.
+ * 
+ * If the outbox is disabled (default), side effects are executed synchronously
+ * within the request. If it is enabled, they are stored in an outbox table and
+ * processed in the background by the
+ * {@link edu.kit.datamanager.pit.outbox.OutboxWorker}.
+ */
+@Validated
+@ConfigurationProperties("pit.outbox")
+@Configuration
+public class OutboxProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Maximum amount of events taken from the outbox at once.
+     */
+    @Min(1)
+    private int batchSize = 200;
+
+    /**
+     * Amount of threads processing a batch. Events of the same PID are always
+     * processed by the same thread, in the order they occurred.
+     */
+    @Min(1)
+    private int workers = 2;
+
+    /**
+     * After this amount of failed attempts, an event is marked as failed and
+     * will not be retried anymore. It stays in the outbox for inspection.
+     */
+    @Min(1)
+    private int maxAttempts = 10;
+
+    /**
+     * Delay before the first retry. It doubles with each failed attempt.
+     */
+    @Min(0)
+    private long initialBackoffMs = 1000;
+
+    /**
+     * Upper limit for the delay between two retries.
+     */
+    @Min(0)
+    private long maxBackoffMs = 300_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+}
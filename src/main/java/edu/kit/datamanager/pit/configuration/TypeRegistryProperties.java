@@ -0,0 +1,250 @@
+package edu.kit.datamanager.pit.configuration;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configures the HTTP client used to access the type registry.
+ * 
+ * Connections are pooled and kept alive, so resolving a profile and its
+ * attribute types does not open a new connection per type. Responses are
+ * cached on HTTP level and revalidated with ETag / Last-Modified once they
+ * are stale, which is cheaper than downloading them again.
+ * 
+ * By default, types are resolved via the handle proxy
+ * (pit.pidsystem.handle.baseURI), which redirects to the registry. Registries
+ * listed in {@link #getRegistries()} are accessed directly instead, selected by
+ * the prefix of the type PID. Each of them has its own connections, HTTP cache
+ * and partition of the type cache, so a slow or large registry does not block
+ * or evict the others.
+ */
+@Validated
+@ConfigurationProperties("pit.typeregistry.http")
+@Configuration
+public class TypeRegistryProperties {
+
+    /**
+     * Timeout for establishing a connection.
+     */
+    @Min(1)
+    private long connectTimeoutMs = 5000;
+
+    /**
+     * Timeout for waiting for a response, once connected.
+     */
+    @Min(1)
+    private long responseTimeoutMs = 10_000;
+
+    /**
+     * Maximum amount of open connections, in total and per host.
+     */
+    @Min(1)
+    private int maxConnections = 20;
+
+    /**
+     * Connections idle for longer than this are closed.
+     */
+    @Min(1)
+    private long idleTimeoutMs = 30_000;
+
+    /**
+     * Maximum amount of responses in the HTTP cache.
+     */
+    @Min(0)
+    private int cacheMaxEntries = 2000;
+
+    /**
+     * Larger responses are not stored in the HTTP cache.
+     */
+    @Min(0)
+    private long cacheMaxObjectSize = 500_000;
+
+    /**
+     * Registries accessed directly, instead of via the handle proxy.
+     */
+    @Valid
+    private List<Registry> registries = new ArrayList<>();
+
+    /**
+     * A type registry which is accessed directly. Settings which are not given
+     * are taken from the enclosing properties.
+     */
+    public static class Registry {
+
+        /**
+         * Handle prefix of the types in this registry, e.g. "21.T11148".
+         */
+        @NotBlank
+        private String prefix;
+
+        /**
+         * Base URI of the API. The type PID is appended as path, e.g.
+         * "https://dtr-test.pidconsortium.eu/objects/". Defaults to the objects
+         * API of pit.typeregistry.baseURI.
+         */
+        private URL baseUri;
+
+        @Min(1)
+        private Long connectTimeoutMs;
+
+        @Min(1)
+        private Long responseTimeoutMs;
+
+        /**
+         * Limits the concurrent requests to this registry.
+         */
+        @Min(1)
+        private Integer maxConnections;
+
+        @Min(0)
+        private Integer cacheMaxEntries;
+
+        /**
+         * Maximum amount of type definitions of this registry in the type cache.
+         * Defaults to pit.typeregistry.cache.maxEntries.
+         */
+        @Min(1)
+        private Integer typeCacheMaxEntries;
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public URL getBaseUri() {
+            return baseUri;
+        }
+
+        public void setBaseUri(URL baseUri) {
+            this.baseUri = baseUri;
+        }
+
+        public Long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(Long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public Long getResponseTimeoutMs() {
+            return responseTimeoutMs;
+        }
+
+        public void setResponseTimeoutMs(Long responseTimeoutMs) {
+            this.responseTimeoutMs = responseTimeoutMs;
+        }
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Integer getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(Integer cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+
+        public Integer getTypeCacheMaxEntries() {
+            return typeCacheMaxEntries;
+        }
+
+        public void setTypeCacheMaxEntries(Integer typeCacheMaxEntries) {
+            this.typeCacheMaxEntries = typeCacheMaxEntries;
+        }
+    }
+
+    /**
+     * @param registry a registry from {@link #getRegistries()}.
+     * @return the HTTP settings for the registry: its own settings where given,
+     *         these properties otherwise.
+     */
+    public TypeRegistryProperties forRegistry(Registry registry) {
+        TypeRegistryProperties result = new TypeRegistryProperties();
+        result.setConnectTimeoutMs(registry.getConnectTimeoutMs() != null
+                ? registry.getConnectTimeoutMs() : this.connectTimeoutMs);
+        result.setResponseTimeoutMs(registry.getResponseTimeoutMs() != null
+                ? registry.getResponseTimeoutMs() : this.responseTimeoutMs);
+        result.setMaxConnections(registry.getMaxConnections() != null
+                ? registry.getMaxConnections() : this.maxConnections);
+        result.setCacheMaxEntries(registry.getCacheMaxEntries() != null
+                ? registry.getCacheMaxEntries() : this.cacheMaxEntries);
+        result.setIdleTimeoutMs(this.idleTimeoutMs);
+        result.setCacheMaxObjectSize(this.cacheMaxObjectSize);
+        return result;
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public long getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+
+    public void setResponseTimeoutMs(long responseTimeoutMs) {
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public long getCacheMaxObjectSize() {
+        return cacheMaxObjectSize;
+    }
+
+    public void setCacheMaxObjectSize(long cacheMaxObjectSize) {
+        this.cacheMaxObjectSize = cacheMaxObjectSize;
+    }
+
+    public List<Registry> getRegistries() {
+        return registries;
+    }
+
+    public void setRegistries(List<Registry> registries) {
+        this.registries = registries;
+    }
+}
@@ -0,0 +1,79 @@
+package edu.kit.datamanager.pit.configuration;
+
+import jakarta.validation.constraints.Min;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configures the write-behind buffer for resolved PIDs.
+ * 
+ * Only has an effect if resolved PIDs are stored (see
+ * {@link ApplicationProperties.StorageStrategy}). If enabled, resolving a
+ * record does not access the database. Instead, resolved records are collected
+ * in memory and stored as known PIDs (and indexed, if required) periodically in
+ * batches.
+ */
+@Validated
+@ConfigurationProperties("pit.storage.write-behind")
+@Configuration
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * If this amount of PIDs is waiting, a flush is triggered before the next
+     * scheduled one.
+     */
+    @Min(1)
+    private int maxPending = 10_000;
+
+    /**
+     * Upper limit of waiting PIDs. If it is reached (e.g. as the database is not
+     * available), resolved PIDs are stored within the request. PIDs which failed
+     * to be stored and do not fit anymore are dropped.
+     */
+    @Min(1)
+    private int capacity = 100_000;
+
+    /**
+     * The amount of PIDs whose last stored record version is remembered. If
+     * more PIDs are resolved, some of them are stored again although they did
+     * not change.
+     */
+    @Min(1)
+    private long expectedRecords = 1_000_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getExpectedRecords() {
+        return expectedRecords;
+    }
+
+    public void setExpectedRecords(long expectedRecords) {
+        this.expectedRecords = expectedRecords;
+    }
+}
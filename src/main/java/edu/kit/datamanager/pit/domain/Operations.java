@@ -1,185 +1,105 @@
 package edu.kit.datamanager.pit.domain;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.Date;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
-import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
-
-import edu.kit.datamanager.pit.pitservice.ITypingService;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex.Match;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex.Role;
+import edu.kit.datamanager.pit.util.DateParser;
 
 /**
  * Simple operations on PID records.
- * 
- * Caches results e.g. for type queries
+ *
+ * Uses the {@link SemanticTypeIndex} to recognize attributes, so no types are
+ * resolved remotely.
  */
 public class Operations {
 
-    private static final String[] KNOWN_DATE_CREATED = {
-        "21.T11148/29f92bd203dd3eaa5a1f",
-        "21.T11148/aafd5fb4c7222e2d950a"
-    };
-
-    private static final String[] KNOWN_DATE_MODIFIED = {
-        "21.T11148/397d831aa3a9d18eb52c"
-    };
+    /**
+     * Dates extracted from a record.
+     *
+     * @param created  the date the FAIR DO was created, if found.
+     * @param modified the date the FAIR DO was modified, if found.
+     */
+    public record RecordDates(Optional<Date> created, Optional<Date> modified) {}
 
-    private ITypingService typingService;
+    private final SemanticTypeIndex semanticIndex;
 
-    public Operations(ITypingService typingService) {
-        this.typingService = typingService;
+    public Operations(SemanticTypeIndex semanticIndex) {
+        this.semanticIndex = semanticIndex;
     }
 
     /**
-     * Tries to get the date when a FAIR DO was created from a PID record.
-     * 
-     * Strategy:
-     * - try to get it from known "dateCreated" types
-     * - as a fallback, try to get it by its human readable name
-     * 
-     * Semantic reasoning in some sense is planned but not yet supported.
-     * 
+     * Extracts the dates of creation and modification from a PID record, in a
+     * single pass over its attributes.
+     *
+     * Strategy (per date):
+     * - try to get it from known date types
+     * - as a fallback, try to get it from types with a matching human readable
+     *   name (see {@link SemanticTypeIndex})
+     * If several values are found, the earliest date is used.
+     *
      * @param pidRecord the record to extract the information from.
-     * @return the date, if it could been extracted.
-     * @throws IOException on IO errors regarding resolving types.
+     * @return the dates which could be extracted.
      */
-    public Optional<Date> findDateCreated(PIDRecord pidRecord) throws IOException {
-        /* try known types */
-        List<String> knownDateTypes = Arrays.asList(Operations.KNOWN_DATE_CREATED);
-        Optional<Date> date = knownDateTypes
-            .stream()
-            .map(pidRecord::getPropertyValues)
-            .map(Arrays::asList)
-            .flatMap(List<String>::stream)
-            .map(this::extractDate)
-            .filter(Optional<Date>::isPresent)
-            .map(Optional<Date>::get)
-            .sorted(Comparator.comparingLong(Date::getTime))
-            .findFirst();
-        if (date.isPresent()) {
-            return date;
-        }
-
-        /* TODO try to find types extending or relating otherwise to known types
-         *      (currently not supported by our TypeDefinition) */
-        // we need to resolve types without streams to forward possible exceptions
-        Collection<TypeDefinition> types = new ArrayList<>();
+    public RecordDates findDates(PIDRecord pidRecord) {
+        Map<Role, Date> wellKnown = new EnumMap<>(Role.class);
+        Map<Role, Date> byName = new EnumMap<>(Role.class);
         for (String attributePid : pidRecord.getPropertyIdentifiers()) {
-            if (this.typingService.isIdentifierRegistered(attributePid)) {
-                TypeDefinition type = this.typingService.describeType(attributePid);
-                types.add(type);
+            Optional<Match> match = this.semanticIndex.lookup(attributePid);
+            if (match.isEmpty()) {
+                continue;
+            }
+            Map<Role, Date> dates = match.get().isWellKnown() ? wellKnown : byName;
+            for (String value : pidRecord.getPropertyValues(attributePid)) {
+                extractDate(value).ifPresent(date -> dates.merge(
+                    match.get().role(),
+                    date,
+                    (a, b) -> a.getTime() <= b.getTime() ? a : b));
             }
         }
+        return new RecordDates(
+            pick(Role.DATE_CREATED, wellKnown, byName),
+            pick(Role.DATE_MODIFIED, wellKnown, byName));
+    }
 
-        /*
-         * as a last fallback, try find types with human readable names containing
-         * "dateCreated" or "createdAt" or "creationDate".
-         * 
-         * This can be removed as soon as we have some default FAIR DO types new type
-         * definitions can refer to (e.g. "extend" them or declare the same meaning as
-         * our known types, see above)
-         */
-        return types
-            .stream()
-            .filter(type -> 
-                type.getName().equals("dateCreated")
-                || type.getName().equals("createdAt")
-                || type.getName().equals("creationDate"))
-            .map(type -> pidRecord.getPropertyValues(type.getIdentifier()))
-            .map(Arrays::asList)
-            .flatMap(List<String>::stream)
-            .map(this::extractDate)
-            .filter(Optional<Date>::isPresent)
-            .map(Optional<Date>::get)
-            .sorted(Comparator.comparingLong(Date::getTime))
-            .findFirst();
+    private static Optional<Date> pick(Role role, Map<Role, Date> wellKnown, Map<Role, Date> byName) {
+        return Optional.ofNullable(wellKnown.getOrDefault(role, byName.get(role)));
     }
 
     /**
-     * Tries to get the date when a FAIR DO was modified from a PID record.
-     * 
-     * Strategy:
-     * - try to get it from known "dateModified" types
-     * - as a fallback, try to get it by its human readable name
-     * 
-     * Semantic reasoning in some sense is planned but not yet supported.
-     * 
+     * Tries to get the date when a FAIR DO was created from a PID record.
+     *
      * @param pidRecord the record to extract the information from.
      * @return the date, if it could been extracted.
-     * @throws IOException on IO errors regarding resolving types.
+     * @see #findDates(PIDRecord)
      */
-    public Optional<Date> findDateModified(PIDRecord pidRecord) throws IOException {
-        /* try known types */
-        List<String> knownDateTypes = Arrays.asList(Operations.KNOWN_DATE_MODIFIED);
-        Optional<Date> date = knownDateTypes
-            .stream()
-            .map(pidRecord::getPropertyValues)
-            .map(Arrays::asList)
-            .flatMap(List<String>::stream)
-            .map(this::extractDate)
-            .filter(Optional<Date>::isPresent)
-            .map(Optional<Date>::get)
-            .sorted(Comparator.comparingLong(Date::getTime))
-            .findFirst();
-        if (date.isPresent()) {
-            return date;
-        }
-
-        /* TODO try to find types extending or relating otherwise to known types
-         *      (currently not supported by our TypeDefinition) */
-        // we need to resolve types without streams to forward possible exceptions
-        Collection<TypeDefinition> types = new ArrayList<>();
-        for (String attributePid : pidRecord.getPropertyIdentifiers()) {
-            if (this.typingService.isIdentifierRegistered(attributePid)) {
-                TypeDefinition type = this.typingService.describeType(attributePid);
-                types.add(type);
-            }
-        }
+    public Optional<Date> findDateCreated(PIDRecord pidRecord) {
+        return findDates(pidRecord).created();
+    }
 
-        /*
-         * as a last fallback, try find types with human readable names containing
-         * "dateModified" or "lastModified" or "modificationDate".
-         * 
-         * This can be removed as soon as we have some default FAIR DO types new type
-         * definitions can refer to (e.g. "extend" them or declare the same meaning as
-         * our known types, see above)
-         */
-        return types
-            .stream()
-            .filter(type -> 
-                type.getName().equals("dateModified")
-                || type.getName().equals("lastModified")
-                || type.getName().equals("modificationDate"))
-            .map(type -> pidRecord.getPropertyValues(type.getIdentifier()))
-            .map(Arrays::asList)
-            .flatMap(List<String>::stream)
-            .map(this::extractDate)
-            .filter(Optional<Date>::isPresent)
-            .map(Optional<Date>::get)
-            .sorted(Comparator.comparingLong(Date::getTime))
-            .findFirst();
+    /**
+     * Tries to get the date when a FAIR DO was modified from a PID record.
+     *
+     * @param pidRecord the record to extract the information from.
+     * @return the date, if it could been extracted.
+     * @see #findDates(PIDRecord)
+     */
+    public Optional<Date> findDateModified(PIDRecord pidRecord) {
+        return findDates(pidRecord).modified();
     }
 
     /**
      * Tries to extract a Date object from a String.
-     * 
+     *
      * @param dateString the date string to extract the date from.
      * @return the extracted Date object.
+     * @see DateParser
      */
     protected Optional<Date> extractDate(String dateString) {
-        DateTimeFormatter dateFormatter = ISODateTimeFormat.dateTime();
-        try {
-            DateTime dateTime = dateFormatter.parseDateTime(dateString);
-            return Optional.of(dateTime.toDate());
-        } catch (Exception e) {
-            return Optional.empty();
-        }
+        return DateParser.parse(dateString).map(Date::from);
     }
 }
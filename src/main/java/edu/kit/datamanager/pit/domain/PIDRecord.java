@@ -1,14 +1,18 @@
 package edu.kit.datamanager.pit.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import edu.kit.datamanager.entities.EtagSupport;
 import edu.kit.datamanager.pit.pidsystem.impl.local.PidDatabaseObject;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,10 +28,19 @@ import java.util.Set;
  */
 public class PIDRecord implements EtagSupport {
 
+    private static final HashFunction DIGEST_FUNCTION = Hashing.murmur3_128();
+
     private String pid = "";
 
     private Map<String, List<PIDRecordEntry>> entries = new HashMap<>();
 
+    /**
+     * Cached digest over the PID and all key-value pairs. Calculated lazily and
+     * reset on every modification of this record. See {@link #getDigest()}.
+     */
+    @JsonIgnore
+    private transient HashCode digest = null;
+
     /**
      * Creates an empty record without PID.
      */
@@ -69,9 +82,21 @@ public class PIDRecord implements EtagSupport {
 
     public void setPid(String pid) {
         this.pid = pid;
+        this.invalidateDigest();
     }
 
+    /**
+     * Returns the entries of this record.
+     * <p>
+     * Note: The returned map is the internal, mutable representation. As the
+     * caller may modify it, this resets the cached digest (and therefore the
+     * etag). Modifications done after a subsequent call of {@link #getEtag()}
+     * will not be reflected in the etag.
+     * 
+     * @return the entries of this record.
+     */
     public Map<String, List<PIDRecordEntry>> getEntries() {
+        this.invalidateDigest();
         return entries;
     }
 
@@ -88,6 +113,7 @@ public class PIDRecord implements EtagSupport {
 
     public void setEntries(Map<String, List<PIDRecordEntry>> entries) {
         this.entries = entries;
+        this.invalidateDigest();
     }
 
     public void addEntry(String propertyIdentifier, String propertyValue) {
@@ -113,6 +139,7 @@ public class PIDRecord implements EtagSupport {
         this.entries
             .computeIfAbsent(propertyIdentifier, key -> new ArrayList<>())
             .add(entry);
+        this.invalidateDigest();
     }
 
     /**
@@ -151,10 +178,12 @@ public class PIDRecord implements EtagSupport {
      */
     public void removePropertiesNotListed(Collection<String> propertiesToKeep) {
         entries.keySet().removeIf(propID -> !propertiesToKeep.contains(propID));
+        this.invalidateDigest();
     }
 
     public void removeAllValuesOf(String attribute) {
         this.entries.remove(attribute);
+        this.invalidateDigest();
     }
 
     /**
@@ -218,12 +247,7 @@ public class PIDRecord implements EtagSupport {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((pid == null) ? 0 : pid.hashCode());
-        Set<SimplePair> simpleEntries = this.getSimpleEntries();
-        result = prime * result + ((simpleEntries == null) ? 0 : simpleEntries.hashCode());
-        return result;
+        return this.getDigest().asInt();
     }
 
     /**
@@ -247,6 +271,10 @@ public class PIDRecord implements EtagSupport {
         if (!equalPIDs) {
             return false;
         }
+        // cheap negative check, as the digest is usually cached anyway
+        if (!this.getDigest().equals(other.getDigest())) {
+            return false;
+        }
 
         // this ignores attributes order, names, and even duplicates
         return this.getSimpleEntries().equals(other.getSimpleEntries());
@@ -266,6 +294,102 @@ public class PIDRecord implements EtagSupport {
     @JsonIgnore
     @Override
     public String getEtag() {
-        return Integer.toString(this.hashCode());
+        return this.getDigest().toString();
+    }
+
+    /**
+     * Returns a 128 bit digest over the PID and all key-value pairs of this
+     * record.
+     * <p>
+     * Like {@link #equals(Object)}, it ignores names, the order of keys and values,
+     * and duplicate pairs. Blank PIDs are treated as equal. The result is cached
+     * until the record is modified.
+     * 
+     * @return the digest of this record.
+     */
+    @JsonIgnore
+    public HashCode getDigest() {
+        HashCode result = this.digest;
+        if (result == null) {
+            result = this.calculateDigest();
+            this.digest = result;
+        }
+        return result;
+    }
+
+    private void invalidateDigest() {
+        this.digest = null;
+    }
+
+    private HashCode calculateDigest() {
+        int numPairs = 0;
+        for (List<PIDRecordEntry> values : this.entries.values()) {
+            numPairs += values.size();
+        }
+        // Two longs per pair, holding the 128 bit hash of the pair.
+        long[] pairHashes = new long[2 * numPairs];
+        byte[] buffer = new byte[16];
+        int i = 0;
+        for (List<PIDRecordEntry> values : this.entries.values()) {
+            for (PIDRecordEntry entry : values) {
+                Hasher pairHasher = DIGEST_FUNCTION.newHasher();
+                putNullableString(pairHasher, entry.getKey());
+                putNullableString(pairHasher, entry.getValue());
+                pairHasher.hash().writeBytesTo(buffer, 0, buffer.length);
+                pairHashes[i++] = bytesToLong(buffer, 0);
+                pairHashes[i++] = bytesToLong(buffer, 8);
+            }
+        }
+        // sorting makes the digest independent of the order of the pairs,
+        // skipping equal neighbours makes it independent of duplicates.
+        sortPairs(pairHashes);
+        Hasher recordHasher = DIGEST_FUNCTION.newHasher();
+        boolean isPidEmpty = this.pid == null || this.pid.isBlank();
+        putNullableString(recordHasher, isPidEmpty ? "" : this.pid);
+        for (int p = 0; p < pairHashes.length; p += 2) {
+            boolean isDuplicate = p > 0
+                    && pairHashes[p] == pairHashes[p - 2]
+                    && pairHashes[p + 1] == pairHashes[p - 1];
+            if (!isDuplicate) {
+                recordHasher.putLong(pairHashes[p]).putLong(pairHashes[p + 1]);
+            }
+        }
+        return recordHasher.hash();
+    }
+
+    private static void putNullableString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putByte((byte) 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            hasher.putByte((byte) 1).putInt(bytes.length).putBytes(bytes);
+        }
+    }
+
+    private static long bytesToLong(byte[] bytes, int offset) {
+        long result = 0;
+        for (int b = offset; b < offset + 8; b++) {
+            result = (result << 8) | (bytes[b] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Sorts an array of 128 bit values (two longs each) in place. Records usually
+     * contain only few pairs, so an insertion sort is sufficient.
+     */
+    private static void sortPairs(long[] pairs) {
+        for (int p = 2; p < pairs.length; p += 2) {
+            long hi = pairs[p];
+            long lo = pairs[p + 1];
+            int j = p - 2;
+            while (j >= 0 && (pairs[j] > hi || (pairs[j] == hi && pairs[j + 1] > lo))) {
+                pairs[j + 2] = pairs[j];
+                pairs[j + 3] = pairs[j + 1];
+                j -= 2;
+            }
+            pairs[j + 2] = hi;
+            pairs[j + 3] = lo;
+        }
     }
 }
@@ -13,6 +13,8 @@ public class SimplePidRecord {
     public static final String CONTENT_TYPE_PURE = "vnd.datamanager.pid.simple";
     @JsonIgnore
     public static final String CONTENT_TYPE = "application/vnd.datamanager.pid.simple+json";
+    @JsonIgnore
+    public static final String CONTENT_TYPE_CBOR = "application/vnd.datamanager.pid.simple+cbor";
 
     private String pid;
 
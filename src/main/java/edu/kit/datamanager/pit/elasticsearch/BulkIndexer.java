@@ -0,0 +1,356 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.datamanager.pit.configuration.BulkIndexProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Collects documents to index and sends them to Elasticsearch in bulk
+ * requests, either if a batch is full or after the flush interval.
+ *
+ * Documents which failed to be indexed are retried with the next batches,
+ * until the maximum amount of attempts is reached. After a failed request, the
+ * indexer waits (with exponential backoff) before the next one.
+ *
+ * The queue is bounded. If it is full (Elasticsearch can not keep up), callers
+ * wait for free space. If there is still no space after the offer timeout,
+ * the caller indexes its document itself, which slows down producers to the
+ * pace of Elasticsearch instead of dropping documents.
+ *
+ * Queued documents are not guaranteed to be indexed: they are dropped after
+ * the maximum amount of attempts. Callers which have to know whether a document
+ * was indexed (e.g. to retry it later) use {@link #index(PidRecordElasticWrapper)}.
+ *
+ * An older document must never overwrite a newer one of the same PID. Each
+ * added document gets a sequence number, and the latest one is remembered per
+ * PID until it is indexed. Documents which are not the latest of their PID
+ * anymore (e.g. a retry, while a newer version was queued or indexed
+ * meanwhile) are skipped. Bulk requests are sent one after another, so the
+ * check and the request can not interleave with another request.
+ *
+ * Metrics: pit.elastic.bulk.queue (queue depth), pit.elastic.bulk.flush
+ * (latency of bulk requests), pit.elastic.bulk.indexed, .retried, .dropped,
+ * .superseded.
+ */
+public class BulkIndexer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkIndexer.class);
+
+    record Pending(PidRecordElasticWrapper document, long sequence, int attempts) {
+        String pid() {
+            return document.getPid();
+        }
+    }
+
+    private final IBulkIndexSink sink;
+    private final BulkIndexProperties props;
+    private final BlockingQueue<Pending> queue;
+    /** Failed documents, sent again with the next batch. */
+    private final Deque<Pending> retries = new ConcurrentLinkedDeque<>();
+    /** Sequence number of the latest document per PID which is not indexed yet. */
+    private final Map<String, Long> latest = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    /** Serializes bulk requests, and guards consecutiveFailures. */
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private int consecutiveFailures = 0;
+
+    private final Timer flushTimer;
+    private final Counter indexed;
+    private final Counter retried;
+    private final Counter dropped;
+    private final Counter superseded;
+
+    private volatile boolean running = false;
+    private Thread flusher;
+
+    public BulkIndexer(IBulkIndexSink sink, BulkIndexProperties props, MeterRegistry registry) {
+        this.sink = sink;
+        this.props = props;
+        this.queue = new LinkedBlockingQueue<>(props.getCapacity());
+        Gauge.builder("pit.elastic.bulk.queue", this.queue, BlockingQueue::size)
+            .description("Documents waiting to be indexed")
+            .register(registry);
+        this.flushTimer = Timer.builder("pit.elastic.bulk.flush")
+            .description("Latency of bulk index requests")
+            .register(registry);
+        this.indexed = Counter.builder("pit.elastic.bulk.indexed").register(registry);
+        this.retried = Counter.builder("pit.elastic.bulk.retried").register(registry);
+        this.dropped = Counter.builder("pit.elastic.bulk.dropped").register(registry);
+        this.superseded = Counter.builder("pit.elastic.bulk.superseded")
+            .description("Documents skipped, as a newer version of the record was added")
+            .register(registry);
+    }
+
+    /**
+     * Starts flushing in a background thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "elastic-bulk-indexer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Adds a document to be indexed. Blocks if the queue is full (see class
+     * description).
+     *
+     * @param document the document to index.
+     */
+    public void add(PidRecordElasticWrapper document) {
+        Pending pending = new Pending(document, sequence.incrementAndGet(), 0);
+        // from now on, older documents of this PID are skipped
+        latest.put(pending.pid(), pending.sequence());
+        try {
+            boolean isQueued = queue.offer(pending, props.getOfferTimeoutMs(), TimeUnit.MILLISECONDS);
+            if (!isQueued) {
+                LOG.warn("Bulk index queue is full. Indexing {} directly.", document.getPid());
+                indexDirectly(pending);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while queueing {} for indexing. Indexing it directly.", document.getPid());
+            indexDirectly(pending);
+        }
+    }
+
+    /**
+     * Indexes a document immediately, bypassing the queue. Queued older documents
+     * of the same PID are skipped afterwards.
+     *
+     * @param document the document to index.
+     * @throws IllegalStateException if the document could not be indexed.
+     */
+    public void index(PidRecordElasticWrapper document) {
+        Pending pending = new Pending(document, sequence.incrementAndGet(), 0);
+        latest.put(pending.pid(), pending.sequence());
+        sendLock.lock();
+        try {
+            if (isSuperseded(pending)) {
+                superseded.increment();
+                return;
+            }
+            Set<String> failed = sink.index(List.of(document));
+            if (!failed.isEmpty()) {
+                throw new IllegalStateException("Could not index " + pending.pid() + ".");
+            }
+            indexed.increment();
+        } finally {
+            latest.remove(pending.pid(), pending.sequence());
+            sendLock.unlock();
+        }
+    }
+
+    private void indexDirectly(Pending pending) {
+        sendLock.lock();
+        try {
+            if (isSuperseded(pending)) {
+                superseded.increment();
+                return;
+            }
+            Set<String> failed = sink.index(List.of(pending.document()));
+            if (!failed.isEmpty()) {
+                dropped.increment();
+                LOG.error("Could not index {}.", pending.pid());
+            } else {
+                indexed.increment();
+            }
+            latest.remove(pending.pid(), pending.sequence());
+        } catch (RuntimeException e) {
+            dropped.increment();
+            latest.remove(pending.pid(), pending.sequence());
+            LOG.error("Could not index {}.", pending.pid(), e);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if a newer document of the same PID was added.
+     */
+    private boolean isSuperseded(Pending pending) {
+        Long latestSequence = latest.get(pending.pid());
+        // no entry: a newer document was indexed (or dropped) already
+        return latestSequence == null || latestSequence != pending.sequence();
+    }
+
+    /**
+     * @return the amount of documents waiting to be indexed, including retries.
+     */
+    public int getQueueDepth() {
+        return queue.size() + retries.size();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<Pending> batch = collectBatch();
+                int failures;
+                sendLock.lock();
+                try {
+                    flush(batch);
+                    failures = consecutiveFailures;
+                } finally {
+                    sendLock.unlock();
+                }
+                if (failures > 0) {
+                    long backoff = Math.min(
+                        props.getRetryBackoffMs() << Math.min(failures - 1, 16),
+                        props.getMaxBackoffMs());
+                    Thread.sleep(backoff);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected error in bulk indexer.", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until the batch is full or the flush interval passed since the first
+     * document arrived.
+     */
+    private List<Pending> collectBatch() throws InterruptedException {
+        int batchSize = props.getBatchSize();
+        List<Pending> batch = new ArrayList<>(batchSize);
+        Pending retry;
+        while (batch.size() < batchSize && (retry = retries.pollFirst()) != null) {
+            batch.add(retry);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getFlushIntervalMs());
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+        return batch;
+    }
+
+    /**
+     * Sends everything currently queued. Intended for shutdown and tests. Safe
+     * to call while the background thread runs, as requests are serialized.
+     *
+     * @return the amount of documents which could not be indexed and are kept
+     *         for a retry.
+     */
+    public int flushAll() {
+        sendLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>();
+            Pending retry;
+            while ((retry = retries.pollFirst()) != null) {
+                batch.add(retry);
+            }
+            queue.drainTo(batch);
+            for (int start = 0; start < batch.size(); start += props.getBatchSize()) {
+                flush(batch.subList(start, Math.min(batch.size(), start + props.getBatchSize())));
+            }
+            return retries.size();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Sends a batch. Must be called with the send lock held.
+     */
+    private void flush(List<Pending> candidates) {
+        List<Pending> batch = new ArrayList<>(candidates.size());
+        for (Pending pending : candidates) {
+            if (isSuperseded(pending)) {
+                superseded.increment();
+                LOG.debug("Skipping outdated document of {}.", pending.pid());
+            } else {
+                batch.add(pending);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PidRecordElasticWrapper> documents = batch.stream().map(Pending::document).toList();
+        long started = System.nanoTime();
+        Set<String> failed;
+        try {
+            failed = sink.index(documents);
+        } catch (RuntimeException e) {
+            LOG.warn("Bulk request with {} documents failed.", documents.size(), e);
+            failed = null;
+        }
+        flushTimer.record(Duration.ofNanos(System.nanoTime() - started));
+
+        int failures = 0;
+        for (Pending pending : batch) {
+            boolean hasFailed = failed == null || failed.contains(pending.document().getPid());
+            if (!hasFailed) {
+                indexed.increment();
+                latest.remove(pending.pid(), pending.sequence());
+                continue;
+            }
+            failures++;
+            int attempts = pending.attempts() + 1;
+            if (attempts < props.getMaxAttempts()) {
+                retried.increment();
+                retries.addLast(new Pending(pending.document(), pending.sequence(), attempts));
+            } else {
+                dropped.increment();
+                latest.remove(pending.pid(), pending.sequence());
+                LOG.error("Giving up indexing {} after {} attempts.", pending.document().getPid(), attempts);
+            }
+        }
+        consecutiveFailures = failures == 0 ? 0 : consecutiveFailures + 1;
+        LOG.debug("Indexed {} of {} documents.", batch.size() - failures, batch.size());
+    }
+
+    /**
+     * Stops the background thread and indexes the remaining documents.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+            if (flusher != null) {
+                flusher.interrupt();
+                try {
+                    flusher.join(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        int remaining = flushAll();
+        if (remaining > 0) {
+            LOG.error("{} documents could not be indexed before shutdown.", remaining);
+        }
+    }
+}
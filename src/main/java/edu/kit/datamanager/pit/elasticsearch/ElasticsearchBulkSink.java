@@ -0,0 +1,62 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+
+/**
+ * Sends documents to the bulk API of Elasticsearch. Does not request a refresh
+ * of the index, so documents become searchable with the next periodic refresh.
+ */
+public class ElasticsearchBulkSink implements IBulkIndexSink {
+
+    private static final BulkOptions OPTIONS = BulkOptions.builder()
+            .withRefreshPolicy(RefreshPolicy.NONE)
+            .build();
+
+    private final ElasticsearchOperations operations;
+    /** Null to use the index of the document annotation. */
+    private final IndexCoordinates index;
+
+    public ElasticsearchBulkSink(ElasticsearchOperations operations) {
+        this(operations, null);
+    }
+
+    /**
+     * @param operations the Elasticsearch client.
+     * @param index      the index to write to instead of the default index.
+     */
+    public ElasticsearchBulkSink(ElasticsearchOperations operations, IndexCoordinates index) {
+        this.operations = operations;
+        this.index = index;
+    }
+
+    @Override
+    public Set<String> index(List<PidRecordElasticWrapper> documents) {
+        if (documents.isEmpty()) {
+            return Set.of();
+        }
+        IndexCoordinates target = this.index != null
+                ? this.index
+                : operations.getIndexCoordinatesFor(PidRecordElasticWrapper.class);
+        List<IndexQuery> queries = documents.stream()
+                .map(document -> new IndexQueryBuilder()
+                        .withId(document.getPid())
+                        .withObject(document)
+                        .build())
+                .toList();
+        try {
+            operations.bulkIndex(queries, OPTIONS, target);
+            return Set.of();
+        } catch (BulkFailureException e) {
+            return e.getFailedDocuments().keySet();
+        }
+    }
+}
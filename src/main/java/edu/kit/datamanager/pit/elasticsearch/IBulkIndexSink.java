@@ -0,0 +1,24 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Receives batches of documents from the {@link BulkIndexer}.
+ * 
+ * Abstracts the bulk endpoint of Elasticsearch, so the indexer can be tested
+ * without an Elasticsearch instance.
+ */
+public interface IBulkIndexSink {
+    /**
+     * Indexes the given documents with a single bulk request, without waiting
+     * for the index to be refreshed.
+     * 
+     * @param documents the documents to index.
+     * @return the PIDs of the documents which could not be indexed. Empty if all
+     *         documents were indexed.
+     * @throws RuntimeException if the whole request failed, e.g. due to
+     *                          connection issues.
+     */
+    Set<String> index(List<PidRecordElasticWrapper> documents);
+}
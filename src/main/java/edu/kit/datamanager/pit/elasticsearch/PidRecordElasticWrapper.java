@@ -19,7 +19,6 @@ import edu.kit.datamanager.pit.domain.Operations;
 import edu.kit.datamanager.pit.domain.PIDRecord;
 import edu.kit.datamanager.pit.pidsystem.impl.local.PidDatabaseObject;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -29,9 +28,8 @@ import java.util.Map;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.FetchType;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.PersistenceCreator;
 import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
@@ -40,14 +38,23 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Document(indexName = "typedpidmaker")
 public class PidRecordElasticWrapper {
 
-    private static final Logger LOG = LoggerFactory.getLogger(PidRecordElasticWrapper.class);
-
     @Id
+    @Field(type = FieldType.Keyword)
     private String pid;
 
+    /**
+     * Mapped as a single flattened field, so new attribute keys do not add new
+     * fields to the index mapping. Supports exact matches on
+     * "attributes.&lt;key&gt;".
+     */
     @ElementCollection(fetch = FetchType.EAGER)
+    @Field(type = FieldType.Flattened)
     private Map<String, ArrayList<String>> attributes = new HashMap<>();
 
+    /** All attribute values, analyzed for full text search. */
+    @Field(type = FieldType.Text)
+    private List<String> values = new ArrayList<>();
+
     @Field(type = FieldType.Date, format = DateFormat.basic_date_time)
     private Date created;
 
@@ -57,18 +64,38 @@ public class PidRecordElasticWrapper {
     @Field(type = FieldType.Text)
     private List<String> read = new ArrayList<>();
 
+    /**
+     * Used by Spring Data to read documents (e.g. search hits). The fields are
+     * set afterwards.
+     */
+    @PersistenceCreator
+    protected PidRecordElasticWrapper() {}
+
     public PidRecordElasticWrapper(PIDRecord pidRecord, Operations dateOperations) {
         pid = pidRecord.getPid();
         PidDatabaseObject simple = new PidDatabaseObject(pidRecord);
         this.attributes = simple.getEntries();
+        this.attributes.values().forEach(this.values::addAll);
         this.read.add("anonymousUser");
 
-        try {
-            this.created = dateOperations.findDateCreated(pidRecord).orElse(null);
-            this.lastUpdate = dateOperations.findDateModified(pidRecord).orElse(null);
-        } catch (IOException e) {
-            LOG.error("Could not retrieve date from record (pid: " + pidRecord.getPid() + ").", e);
-            e.printStackTrace();
-        }
+        Operations.RecordDates dates = dateOperations.findDates(pidRecord);
+        this.created = dates.created().orElse(null);
+        this.lastUpdate = dates.modified().orElse(null);
+    }
+
+    public String getPid() {
+        return pid;
+    }
+
+    public Map<String, ArrayList<String>> getAttributes() {
+        return attributes;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public Date getLastUpdate() {
+        return lastUpdate;
     }
 }
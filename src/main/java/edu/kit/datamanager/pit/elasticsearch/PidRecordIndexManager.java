@@ -0,0 +1,146 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+
+/**
+ * Manages versioned indices for {@link PidRecordElasticWrapper}.
+ *
+ * The index name of the document ("typedpidmaker") is used as an alias, which
+ * points to a versioned index ("typedpidmaker-20240101t120000"). A new version
+ * can be built in the background while the alias still points to the old one,
+ * and the alias is switched atomically afterwards.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repo.search", name = "enabled", havingValue = "true")
+public class PidRecordIndexManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PidRecordIndexManager.class);
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd't'HHmmss");
+
+    private final ElasticsearchOperations operations;
+    private final ElasticsearchClient client;
+
+    public PidRecordIndexManager(ElasticsearchOperations operations, ElasticsearchClient client) {
+        this.operations = operations;
+        this.client = client;
+    }
+
+    /**
+     * @return the name of the alias all reads and writes use.
+     */
+    public String getAlias() {
+        return operations.getIndexCoordinatesFor(PidRecordElasticWrapper.class).getIndexName();
+    }
+
+    /**
+     * Creates a new, empty index with the current mapping, optimized for
+     * writing: no replicas and no periodic refresh.
+     *
+     * @return the coordinates of the new index.
+     */
+    public IndexCoordinates createVersion() {
+        String name = getAlias() + "-" + ZonedDateTime.now(ZoneOffset.UTC).format(VERSION_FORMAT);
+        IndexCoordinates coordinates = IndexCoordinates.of(name);
+        IndexOperations indexOps = operations.indexOps(coordinates);
+        Document mapping = indexOps.createMapping(PidRecordElasticWrapper.class);
+        Map<String, Object> settings = Map.of(
+            "index.number_of_replicas", 0,
+            "index.refresh_interval", "-1");
+        indexOps.create(settings, mapping);
+        LOG.info("Created index {}.", name);
+        return coordinates;
+    }
+
+    /**
+     * Restores the replicas and refresh interval of a new index and makes all
+     * documents searchable.
+     *
+     * @param index           the new index.
+     * @param replicas        the amount of replicas for regular operation.
+     * @param refreshInterval the refresh interval for regular operation, e.g. "1s".
+     */
+    public void finishVersion(IndexCoordinates index, int replicas, String refreshInterval) throws IOException {
+        client.indices().putSettings(put -> put
+            .index(index.getIndexName())
+            .settings(settings -> settings
+                .numberOfReplicas(String.valueOf(replicas))
+                .refreshInterval(interval -> interval.time(refreshInterval))));
+        operations.indexOps(index).refresh();
+    }
+
+    /**
+     * @return true, if an index with the name of the alias exists (created before
+     *         versioned indices were used). It has to be deleted to create the
+     *         alias.
+     */
+    public boolean hasUnversionedIndex() throws IOException {
+        String alias = getAlias();
+        return !client.indices().existsAlias(exists -> exists.name(alias)).value()
+            && client.indices().exists(exists -> exists.index(alias)).value();
+    }
+
+    /**
+     * Points the alias to the given index, in a single atomic request. If an
+     * index with the name of the alias exists (created before versioned indices
+     * were used), it is deleted within the same request, if allowed.
+     *
+     * @param index             the index the alias should point to.
+     * @param deleteUnversioned if true, an unversioned index with the name of
+     *                          the alias is deleted. Otherwise, its existence
+     *                          fails the switch.
+     * @return the names of the (versioned) indices the alias pointed to before.
+     * @throws IOException if the switch failed, or an unversioned index exists
+     *                     and may not be deleted.
+     */
+    public List<String> switchAlias(IndexCoordinates index, boolean deleteUnversioned) throws IOException {
+        String alias = getAlias();
+        boolean isAlias = client.indices().existsAlias(exists -> exists.name(alias)).value();
+        List<String> previous = isAlias
+            ? new ArrayList<>(client.indices().getAlias(get -> get.name(alias)).result().keySet())
+            : new ArrayList<>();
+        boolean isLegacyIndex = !isAlias && client.indices().exists(exists -> exists.index(alias)).value();
+        if (isLegacyIndex && !deleteUnversioned) {
+            throw new IOException("Index %s is not versioned and would be deleted by the switch.".formatted(alias));
+        }
+
+        client.indices().updateAliases(update -> {
+            update.actions(action -> action.add(add -> add.index(index.getIndexName()).alias(alias)));
+            for (String old : previous) {
+                update.actions(action -> action.remove(remove -> remove.index(old).alias(alias)));
+            }
+            if (isLegacyIndex) {
+                update.actions(action -> action.removeIndex(remove -> remove.index(alias)));
+            }
+            return update;
+        });
+        if (isLegacyIndex) {
+            LOG.info("Deleted unversioned index {}.", alias);
+        }
+        LOG.info("Alias {} now points to {} instead of {}.", alias, index.getIndexName(), previous);
+        return previous;
+    }
+
+    /**
+     * @param name the name of the index to delete.
+     */
+    public void delete(String name) {
+        operations.indexOps(IndexCoordinates.of(name)).delete();
+    }
+}
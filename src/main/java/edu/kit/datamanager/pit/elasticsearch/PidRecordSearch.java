@@ -0,0 +1,134 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Component;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
+
+/**
+ * Searches the records indexed in Elasticsearch.
+ *
+ * Results are ordered by PID. Instead of page numbers, the next page is
+ * requested with the sort values of the last hit ("search_after"), so deep
+ * pages are as fast as the first one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repo.search", name = "enabled", havingValue = "true")
+public class PidRecordSearch {
+
+    /** Accepts ISO 8601 timestamps in range queries, independent of the storage format. */
+    private static final String DATE_FORMAT = "strict_date_optional_time";
+    private static final Sort ORDER = Sort.by(Sort.Direction.ASC, "pid");
+
+    /**
+     * Restricts the search results. All given restrictions have to match.
+     *
+     * @param attributes     attribute keys with values the records must contain
+     *                       (exact match).
+     * @param text           words which have to occur in the values of a record,
+     *                       or null.
+     * @param createdAfter   earliest creation date, or null.
+     * @param createdBefore  latest creation date, or null.
+     * @param modifiedAfter  earliest modification date, or null.
+     * @param modifiedBefore latest modification date, or null.
+     */
+    public record Criteria(
+        Map<String, List<String>> attributes,
+        String text,
+        Instant createdAfter,
+        Instant createdBefore,
+        Instant modifiedAfter,
+        Instant modifiedBefore
+    ) {}
+
+    /**
+     * @param hits the records of this page.
+     * @param next the sort values to request the next page with, if there are
+     *             more hits.
+     */
+    public record Result(List<PidRecordElasticWrapper> hits, Optional<List<Object>> next) {}
+
+    private final ElasticsearchOperations operations;
+
+    public PidRecordSearch(ElasticsearchOperations operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * @param criteria    the restrictions of the results.
+     * @param size        the maximum amount of hits to return.
+     * @param searchAfter the sort values of the last hit of the previous page, or
+     *                    an empty list for the first page.
+     * @return the hits and, if there are more, the position of the next page.
+     */
+    public Result search(Criteria criteria, int size, List<Object> searchAfter) {
+        // one more than requested, to know if there is a next page
+        NativeQuery query = buildQuery(criteria, size + 1, searchAfter);
+        SearchHits<PidRecordElasticWrapper> hits = operations.search(query, PidRecordElasticWrapper.class);
+        List<SearchHit<PidRecordElasticWrapper>> page = hits.getSearchHits();
+        if (page.size() <= size) {
+            return new Result(page.stream().map(SearchHit::getContent).toList(), Optional.empty());
+        }
+        page = page.subList(0, size);
+        List<Object> next = page.get(size - 1).getSortValues();
+        return new Result(page.stream().map(SearchHit::getContent).toList(), Optional.of(next));
+    }
+
+    static NativeQuery buildQuery(Criteria criteria, int size, List<Object> searchAfter) {
+        BoolQuery.Builder bool = QueryBuilders.bool();
+        if (criteria.attributes() != null) {
+            criteria.attributes().forEach((key, values) -> values.forEach(
+                value -> bool.filter(QueryBuilders.term(term -> term
+                    .field("attributes." + key)
+                    .value(value)))));
+        }
+        if (criteria.text() != null && !criteria.text().isBlank()) {
+            bool.must(QueryBuilders.match(match -> match
+                .field("values")
+                .query(criteria.text())
+                .operator(Operator.And)));
+        }
+        dateRange("created", criteria.createdAfter(), criteria.createdBefore()).ifPresent(bool::filter);
+        dateRange("lastUpdate", criteria.modifiedAfter(), criteria.modifiedBefore()).ifPresent(bool::filter);
+
+        NativeQueryBuilder builder = NativeQuery.builder()
+            .withQuery(bool.build()._toQuery())
+            .withSort(ORDER)
+            .withPageable(PageRequest.of(0, size));
+        if (searchAfter != null && !searchAfter.isEmpty()) {
+            builder.withSearchAfter(searchAfter);
+        }
+        return builder.build();
+    }
+
+    private static Optional<Query> dateRange(String field, Instant after, Instant before) {
+        if (after == null && before == null) {
+            return Optional.empty();
+        }
+        return Optional.of(QueryBuilders.range(range -> range.date(date -> {
+            date.field(field).format(DATE_FORMAT);
+            if (after != null) {
+                date.gte(after.toString());
+            }
+            if (before != null) {
+                date.lte(before.toString());
+            }
+            return date;
+        })));
+    }
+}
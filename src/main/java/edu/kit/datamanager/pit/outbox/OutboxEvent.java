@@ -0,0 +1,141 @@
+package edu.kit.datamanager.pit.outbox;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * A pending side effect of a record operation, stored in the outbox table until
+ * it has been processed by the {@link OutboxWorker}.
+ * 
+ * The record is stored as it was at the time of the event, so processing does
+ * not need to resolve it again.
+ */
+@Entity
+public class OutboxEvent {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /** Ascending in the order events were written. Defines processing order. */
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @NotBlank
+    private String pid;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private RecordEventType type;
+
+    /** The record, serialized as JSON. */
+    @Lob
+    @NotNull
+    private String record;
+
+    /** The principal who caused the event, required for messaging. */
+    private String principal;
+
+    @NotNull
+    private Instant occurred;
+
+    private int attempts = 0;
+
+    @NotNull
+    private Instant nextAttempt;
+
+    /** True if the event will not be retried anymore. */
+    private boolean failed = false;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    /** For hibernate */
+    public OutboxEvent() {}
+
+    public OutboxEvent(RecordEventType type, String pid, String record, String principal, Instant occurred) {
+        this.type = type;
+        this.pid = pid;
+        this.record = record;
+        this.principal = principal;
+        this.occurred = occurred;
+        this.nextAttempt = occurred;
+    }
+
+    /**
+     * Registers a failed processing attempt and schedules the next one using
+     * exponential backoff.
+     * 
+     * @param error            the reason of the failure.
+     * @param now              the time of the failed attempt.
+     * @param maxAttempts      the amount of attempts after which the event is
+     *                         marked as failed.
+     * @param initialBackoffMs the delay before the first retry.
+     * @param maxBackoffMs     the upper limit of the delay.
+     */
+    public void registerFailure(Exception error, Instant now, int maxAttempts, long initialBackoffMs, long maxBackoffMs) {
+        this.attempts++;
+        String message = String.valueOf(error.getMessage());
+        this.lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        this.failed = this.attempts >= maxAttempts;
+        // avoid overflows by limiting the shift
+        long backoff = initialBackoffMs << Math.min(this.attempts - 1, 30);
+        if (backoff < 0 || backoff > maxBackoffMs) {
+            backoff = maxBackoffMs;
+        }
+        this.nextAttempt = now.plusMillis(backoff);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getPid() {
+        return pid;
+    }
+
+    public RecordEventType getType() {
+        return type;
+    }
+
+    public String getRecord() {
+        return record;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public Instant getOccurred() {
+        return occurred;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent [id=" + id + ", pid=" + pid + ", type=" + type + ", attempts=" + attempts + "]";
+    }
+}
@@ -0,0 +1,37 @@
+package edu.kit.datamanager.pit.outbox;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Object to access the events of the outbox.
+ */
+public interface OutboxEventDao extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * @param pageable usually only limits the amount of events.
+     * @return the oldest events which may still be processed.
+     */
+    List<OutboxEvent> findByFailedFalseOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Events waiting for a retry do not block events of other PIDs. Events of
+     * the same PID keep their order: an event is only due if no earlier event
+     * of its PID is still waiting for a retry.
+     *
+     * @param now      the current time.
+     * @param pageable usually only limits the amount of events.
+     * @return the oldest events which can be processed now.
+     */
+    @Query("select e from OutboxEvent e where e.failed = false and e.nextAttempt <= :now"
+            + " and not exists (select b from OutboxEvent b where b.pid = e.pid and b.failed = false"
+            + " and b.id < e.id and b.nextAttempt > :now)"
+            + " order by e.id asc")
+    List<OutboxEvent> findDue(@Param("now") Instant now, Pageable pageable);
+
+    long countByFailedTrue();
+}
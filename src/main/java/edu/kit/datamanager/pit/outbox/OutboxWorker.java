@@ -0,0 +1,153 @@
+package edu.kit.datamanager.pit.outbox;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import edu.kit.datamanager.pit.configuration.OutboxProperties;
+
+/**
+ * Drains the outbox in the background, if the outbox is enabled.
+ * 
+ * Events are taken in batches, in the order they were written. Within a batch,
+ * events are grouped by PID and distributed to the worker threads so that all
+ * events of one PID are handled by the same thread, in order. If an event
+ * fails, the following events of the same PID wait until it succeeded or was
+ * marked as failed after too many attempts.
+ * 
+ * If virtual threads are enabled (spring.threads.virtual.enabled), each group
+ * of events is handled by a new virtual thread instead of a pooled thread. The
+ * amount of concurrent groups is still limited by pit.outbox.workers.
+ * 
+ * Note: Only one instance of this service should drain the same outbox table.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pit.outbox", name = "enabled", havingValue = "true")
+public class OutboxWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxWorker.class);
+
+    private final OutboxEventDao outbox;
+    private final RecordSideEffects sideEffects;
+    private final OutboxProperties props;
+    private final ExecutorService workers;
+
+    public OutboxWorker(
+            OutboxEventDao outbox,
+            RecordSideEffects sideEffects,
+            OutboxProperties props,
+            Environment environment) {
+        this.outbox = outbox;
+        this.sideEffects = sideEffects;
+        this.props = props;
+        this.workers = Threading.VIRTUAL.isActive(environment)
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-worker-", 0).factory())
+                : Executors.newFixedThreadPool(props.getWorkers());
+    }
+
+    @Scheduled(fixedDelayString = "${pit.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        int processed;
+        do {
+            processed = drainBatch();
+            // A full batch without failures indicates more events are waiting.
+        } while (processed == props.getBatchSize());
+    }
+
+    /**
+     * Processes one batch of events.
+     * 
+     * @return the amount of successfully processed events.
+     */
+    int drainBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = outbox.findDue(now, PageRequest.of(0, props.getBatchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxEvent>> eventsByPid = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            eventsByPid.computeIfAbsent(event.getPid(), pid -> new ArrayList<>()).add(event);
+        }
+        List<List<List<OutboxEvent>>> partitions = new ArrayList<>();
+        for (int i = 0; i < props.getWorkers(); i++) {
+            partitions.add(new ArrayList<>());
+        }
+        eventsByPid.forEach((pid, events) -> partitions
+                .get(Math.floorMod(pid.hashCode(), props.getWorkers()))
+                .add(events));
+
+        Collection<OutboxEvent> done = new ConcurrentLinkedQueue<>();
+        Collection<OutboxEvent> retry = new ConcurrentLinkedQueue<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (List<List<OutboxEvent>> partition : partitions) {
+            if (!partition.isEmpty()) {
+                tasks.add(() -> {
+                    partition.forEach(events -> process(events, now, done, retry));
+                    return null;
+                });
+            }
+        }
+        try {
+            workers.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        outbox.deleteAllInBatch(done);
+        outbox.saveAll(retry);
+        LOG.debug("Processed {} outbox events, {} failed.", done.size(), retry.size());
+        return done.size();
+    }
+
+    private void process(List<OutboxEvent> events, Instant now, Collection<OutboxEvent> done, Collection<OutboxEvent> retry) {
+        for (OutboxEvent event : events) {
+            if (event.getNextAttempt().isAfter(now)) {
+                // keep the order: later events of this PID have to wait.
+                return;
+            }
+            try {
+                sideEffects.apply(event);
+                done.add(event);
+            } catch (Exception e) {
+                event.registerFailure(
+                    e,
+                    now,
+                    props.getMaxAttempts(),
+                    props.getInitialBackoffMs(),
+                    props.getMaxBackoffMs());
+                if (event.isFailed()) {
+                    LOG.error("Giving up on outbox event {} after {} attempts.", event, event.getAttempts(), e);
+                } else {
+                    LOG.warn("Outbox event {} failed, will retry at {}: {}", event, event.getNextAttempt(), e.getMessage());
+                }
+                retry.add(event);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,18 @@
+package edu.kit.datamanager.pit.outbox;
+
+/**
+ * The operations on a PID record which cause side effects.
+ */
+public enum RecordEventType {
+    CREATED,
+    UPDATED,
+    RESOLVED;
+
+    /**
+     * @return true if the event is caused by a modification of the record using
+     *         this service.
+     */
+    public boolean isModification() {
+        return this == CREATED || this == UPDATED;
+    }
+}
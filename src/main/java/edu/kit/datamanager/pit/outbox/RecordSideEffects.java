@@ -0,0 +1,396 @@
+package edu.kit.datamanager.pit.outbox;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.kit.datamanager.entities.messaging.PidRecordMessage;
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.configuration.ApplicationProperties;
+import edu.kit.datamanager.pit.configuration.ExistenceFilterProperties;
+import edu.kit.datamanager.pit.configuration.OutboxProperties;
+import edu.kit.datamanager.pit.configuration.WriteBehindProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.elasticsearch.BulkIndexer;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticRepository;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
+import edu.kit.datamanager.pit.outbox.ResolvedRecordsBuffer.Pending;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+import edu.kit.datamanager.pit.util.ExistenceFilter;
+import edu.kit.datamanager.service.IMessagingService;
+import edu.kit.datamanager.util.AuthenticationHelper;
+import edu.kit.datamanager.util.ControllerUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Handles everything which has to happen after a record has been created,
+ * updated or resolved, but is not required to answer the request: storing the
+ * PID as a known PID, indexing the record in Elasticsearch, and notifying other
+ * services via messaging.
+ * 
+ * By default, side effects are executed synchronously. If the outbox is enabled
+ * (see {@link OutboxProperties}), they are only written to the outbox and
+ * processed later by the {@link OutboxWorker}. If the write-behind buffer is
+ * enabled (see {@link WriteBehindProperties}), resolved records are collected in
+ * memory and stored periodically in batches.
+ */
+@Component
+public class RecordSideEffects {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecordSideEffects.class);
+    private static final ObjectMapper MAPPER = Application.jsonObjectMapper();
+
+    @Autowired
+    private ApplicationProperties applicationProps;
+
+    @Autowired
+    private OutboxProperties outboxProps;
+
+    @Autowired
+    private ITypingService typingService;
+
+    @Autowired
+    private IMessagingService messagingService;
+
+    @Autowired
+    private KnownPidsDao localPidStorage;
+
+    @Autowired
+    private Optional<PidRecordElasticRepository> elastic;
+
+    @Autowired
+    private Optional<BulkIndexer> bulkIndexer;
+
+    @Autowired
+    private OutboxEventDao outbox;
+
+    @Autowired
+    @Qualifier(ExistenceFilterProperties.KNOWN_PIDS)
+    private ExistenceFilter knownPidsFilter;
+
+    @Autowired
+    private WriteBehindProperties writeBehindProps;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Null if the write-behind buffer is disabled. */
+    private ResolvedRecordsBuffer resolvedBuffer;
+    private ExecutorService flushExecutor;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean isFlushRequested = new AtomicBoolean(false);
+
+    @PostConstruct
+    void setupWriteBehind() {
+        if (writeBehindProps.isEnabled() && applicationProps.getStorageStrategy().storesResolved()) {
+            this.resolvedBuffer = new ResolvedRecordsBuffer(
+                writeBehindProps.getMaxPending(),
+                writeBehindProps.getCapacity(),
+                writeBehindProps.getExpectedRecords());
+            FunctionCounter.builder("pit.storage.write-behind.dropped", resolvedBuffer, ResolvedRecordsBuffer::dropped)
+                .description("Resolved PIDs not stored, as the write-behind buffer was full")
+                .register(meterRegistry);
+            this.flushExecutor = Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @PreDestroy
+    void shutdownWriteBehind() {
+        if (this.resolvedBuffer != null) {
+            this.flushExecutor.shutdown();
+            this.flushResolved();
+        }
+    }
+
+    public void created(PIDRecord pidRecord) throws IOException {
+        this.dispatch(RecordEventType.CREATED, pidRecord);
+    }
+
+    public void updated(PIDRecord pidRecord) throws IOException {
+        this.dispatch(RecordEventType.UPDATED, pidRecord);
+    }
+
+    public void resolved(PIDRecord pidRecord) throws IOException {
+        this.dispatch(RecordEventType.RESOLVED, pidRecord);
+    }
+
+    private void dispatch(RecordEventType type, PIDRecord pidRecord) throws IOException {
+        if (type == RecordEventType.RESOLVED && !hasResolveSideEffects()) {
+            // plain reads must not turn into database writes (e.g. in the outbox)
+            return;
+        }
+        // The principal is only available on the request thread.
+        String principal = AuthenticationHelper.getPrincipal();
+        Instant now = Instant.now();
+        // if the buffer is at its capacity, resolved records are handled like without buffer
+        if (type == RecordEventType.RESOLVED && resolvedBuffer != null && !resolvedBuffer.isAtCapacity()) {
+            boolean isFull = resolvedBuffer.offer(pidRecord, now);
+            if (isFull && isFlushRequested.compareAndSet(false, true)) {
+                flushExecutor.execute(this::flushResolved);
+            }
+        } else if (outboxProps.isEnabled()) {
+            String serialized = MAPPER.writeValueAsString(pidRecord);
+            outbox.save(new OutboxEvent(type, pidRecord.getPid(), serialized, principal, now));
+        } else {
+            this.apply(type, pidRecord, principal, now, false);
+        }
+    }
+
+    /**
+     * @return true if resolving a record has side effects: storing it as a known
+     *         PID or indexing it.
+     */
+    private boolean hasResolveSideEffects() {
+        return applicationProps.getStorageStrategy().storesResolved() || elastic.isPresent();
+    }
+
+    /**
+     * Executes the side effects of an event taken from the outbox.
+     * 
+     * @param event the event to process.
+     * @throws IOException if the record could not be read or a side effect failed.
+     */
+    void apply(OutboxEvent event) throws IOException {
+        PIDRecord pidRecord = MAPPER.readValue(event.getRecord(), PIDRecord.class);
+        this.apply(event.getType(), pidRecord, event.getPrincipal(), event.getOccurred(), true);
+    }
+
+    /**
+     * Executes the side effects. Repeating it with the same arguments has the same
+     * effect on the known PIDs database and the search index, so failed events
+     * can safely be retried. The record is indexed before its etag is stored, so
+     * a failed indexing is repeated by the retry. As messaging is done last and
+     * failures are only logged, messages will not be sent twice.
+     * 
+     * @param isRetried true if the caller retries on failure (outbox). The record
+     *                  is then indexed immediately instead of being queued for
+     *                  bulk indexing, so a failure is noticed.
+     */
+    private void apply(RecordEventType type, PIDRecord pidRecord, String principal, Instant occurred, boolean isRetried) {
+        ApplicationProperties.StorageStrategy strategy = applicationProps.getStorageStrategy();
+        boolean isStored = type.isModification() ? strategy.storesModified() : strategy.storesResolved();
+        Optional<KnownPid> knownPid = isStored ? findKnownPid(pidRecord.getPid()) : Optional.empty();
+        // If we have seen this exact record before, it has already been indexed.
+        boolean isKnownVersion = knownPid
+            .map(known -> pidRecord.getEtag().equals(known.getRecordEtag()))
+            .orElse(false);
+        if (!isKnownVersion) {
+            this.saveToElastic(pidRecord, !isRetried);
+        }
+        if (isStored) {
+            storeLocally(pidRecord, knownPid, type.isModification(), occurred);
+        }
+        if (type.isModification()) {
+            this.sendMessage(type, pidRecord.getPid(), principal);
+        }
+    }
+
+    /**
+     * Stores the records collected by the write-behind buffer as known PIDs and
+     * indexes the ones which changed since they were stored the last time.
+     * 
+     * Runs periodically and if the buffer is full. Does nothing if the
+     * write-behind buffer is disabled or a flush is already running.
+     */
+    @Scheduled(fixedDelayString = "${pit.storage.write-behind.flush-interval-ms:1000}")
+    public void flushResolved() {
+        if (resolvedBuffer == null || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            isFlushRequested.set(false);
+            List<Pending> batch = resolvedBuffer.drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PIDRecord> changed;
+            try {
+                changed = storeResolvedInTransaction(batch);
+            } catch (RuntimeException e) {
+                LOG.error("Could not store {} resolved PIDs. Will try again.", batch.size(), e);
+                // records resolved during the flush are newer and win
+                resolvedBuffer.requeue(batch);
+                return;
+            }
+            resolvedBuffer.markStored(batch);
+            for (PIDRecord pidRecord : changed) {
+                try {
+                    this.saveToElastic(pidRecord, true);
+                } catch (RuntimeException e) {
+                    LOG.error("Could not index resolved record {}.", pidRecord.getPid(), e);
+                }
+            }
+            LOG.debug("Stored {} resolved PIDs, {} of them were new or changed.", batch.size(), changed.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<PIDRecord> storeResolvedInTransaction(List<Pending> batch) {
+        try {
+            return transactionTemplate.execute(status -> storeResolved(batch, true));
+        } catch (DataIntegrityViolationException e) {
+            LOG.warn("Existence filter of known PIDs is out of sync (were PIDs stored by another instance?).");
+            return transactionTemplate.execute(status -> storeResolved(batch, false));
+        }
+    }
+
+    /**
+     * Stores a batch of resolved records within one transaction: unknown PIDs are
+     * inserted in bulk, known PIDs get their etag updated if the record changed.
+     * 
+     * @param useFilter if true, PIDs which are definitely new according to the
+     *                  existence filter are not looked up.
+     * @return the records which are new or changed and need to be indexed.
+     */
+    private List<PIDRecord> storeResolved(List<Pending> batch, boolean useFilter) {
+        Map<String, KnownPid> known = new HashMap<>();
+        List<String> maybeKnown = batch.stream()
+            .map(p -> p.pidRecord().getPid())
+            .filter(pid -> !useFilter || knownPidsFilter.mightContain(pid))
+            .toList();
+        localPidStorage
+            .findAllById(maybeKnown)
+            .forEach(knownPid -> known.put(knownPid.getPid(), knownPid));
+
+        List<KnownPid> newPids = new ArrayList<>();
+        List<PIDRecord> changed = new ArrayList<>();
+        for (Pending p : batch) {
+            PIDRecord pidRecord = p.pidRecord();
+            String etag = pidRecord.getEtag();
+            KnownPid knownPid = known.get(pidRecord.getPid());
+            if (knownPid == null) {
+                KnownPid newPid = new KnownPid(pidRecord.getPid(), p.seen(), p.seen());
+                newPid.setRecordEtag(etag);
+                newPids.add(newPid);
+                changed.add(pidRecord);
+            } else if (!etag.equals(knownPid.getRecordEtag()) && !knownPid.getModified().isAfter(p.seen())) {
+                // If it was modified after it was resolved, the stored information is newer.
+                // Otherwise, update the managed entity. Will be written on flush.
+                knownPid.setRecordEtag(etag);
+                changed.add(pidRecord);
+            }
+        }
+        // flushes the updates, too
+        localPidStorage.insertAll(newPids);
+        newPids.forEach(newPid -> knownPidsFilter.put(newPid.getPid()));
+        return changed;
+    }
+
+    /**
+     * @param pid the PID to look up.
+     * @return the PID as stored in the local database, if it is known. PIDs
+     *         which are definitely new according to the existence filter are
+     *         not looked up.
+     */
+    private Optional<KnownPid> findKnownPid(String pid) {
+        if (!knownPidsFilter.mightContain(pid)) {
+            return Optional.empty();
+        }
+        Optional<KnownPid> knownPid = localPidStorage.findByPid(pid);
+        if (knownPid.isEmpty()) {
+            knownPidsFilter.reportFalsePositive();
+        }
+        return knownPid;
+    }
+
+    /**
+     * Stores the PID in a local database, together with the etag of its record.
+     * 
+     * @param pidRecord the record of the PID to store.
+     * @param knownPid  the PID as currently stored, see {@link #findKnownPid(String)}.
+     * @param update    if true, updates the modified timestamp if it already exists.
+     *                  If it does not exist, it will be created with both
+     *                  timestamps (created and modified) being the same.
+     * @param now       the time of the operation.
+     */
+    private void storeLocally(PIDRecord pidRecord, Optional<KnownPid> knownPid, boolean update, Instant now) {
+        String pid = pidRecord.getPid();
+        String etag = pidRecord.getEtag();
+        if (knownPid.isEmpty()) {
+            KnownPid newPid = new KnownPid(pid, now, now);
+            newPid.setRecordEtag(etag);
+            try {
+                localPidStorage.insertAll(List.of(newPid));
+                knownPidsFilter.put(pid);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                LOG.warn("Existence filter of known PIDs is out of sync (was {} stored by another instance?).", pid);
+                knownPid = localPidStorage.findByPid(pid);
+                if (knownPid.isEmpty()) {
+                    throw e;
+                }
+                knownPidsFilter.put(pid);
+            }
+        }
+        KnownPid stored = knownPid.get();
+        boolean isUnchanged = etag.equals(stored.getRecordEtag());
+        if (update) {
+            stored.setModified(now);
+        }
+        if (update || !isUnchanged) {
+            stored.setRecordEtag(etag);
+            localPidStorage.saveAndFlush(stored);
+        }
+    }
+
+    /**
+     * @param rec      the record to index.
+     * @param mayDefer if true, the record may be queued for bulk indexing. It is
+     *                 then not guaranteed to be indexed when this method returns.
+     */
+    private void saveToElastic(PIDRecord rec, boolean mayDefer) {
+        if (this.elastic.isEmpty()) {
+            return;
+        }
+        PidRecordElasticWrapper document = new PidRecordElasticWrapper(rec, typingService.getOperations());
+        if (this.bulkIndexer.isPresent() && mayDefer) {
+            this.bulkIndexer.get().add(document);
+        } else if (this.bulkIndexer.isPresent()) {
+            // keeps the order with documents queued in the bulk indexer
+            this.bulkIndexer.get().index(document);
+        } else {
+            this.elastic.get().save(document);
+        }
+    }
+
+    private void sendMessage(RecordEventType type, String pid, String principal) {
+        String hostname = ControllerUtils.getLocalHostname();
+        PidRecordMessage message = type == RecordEventType.CREATED
+                ? PidRecordMessage.creation(pid, "", principal, hostname) // TODO second parameter is depricated and will be removed soon.
+                : PidRecordMessage.update(pid, "", principal, hostname);
+        try {
+            this.messagingService.send(message);
+        } catch (Exception e) {
+            LOG.error("Could not notify messaging service about the following message: {}", message);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.kit.datamanager.pit.outbox;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.hash.Hashing;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+
+/**
+ * Collects resolved records in memory, so they can be stored as known PIDs in
+ * batches instead of accessing the database on every resolve.
+ * 
+ * Duplicates are removed in two ways: Pending records are kept in a map (one
+ * entry per PID, the latest record wins). The last stored version of each PID
+ * is remembered in a fixed-size table of 64 bit fingerprints, so resolving it
+ * again does not even touch the map. Each PID maps to one slot of the table,
+ * which holds the fingerprint of the version stored last. Storing a new
+ * version replaces the previous one, so a record which changes back to an
+ * older version (A, B, A) is stored again. If PIDs share a slot, they replace
+ * each other's fingerprint, which only causes an additional (harmless) store.
+ * 
+ * The amount of pending records is limited by a capacity. If it is reached
+ * (e.g. while the database is down), callers store records themselves (see
+ * {@link #isAtCapacity()}), and records which could not be stored are only
+ * put back as long as there is space. The others are dropped and counted.
+ * 
+ * Thread-safe.
+ */
+class ResolvedRecordsBuffer {
+
+    /**
+     * A record waiting to be stored.
+     * 
+     * @param pidRecord the most recently resolved record.
+     * @param seen      the time the PID was first resolved since the last flush.
+     */
+    record Pending(PIDRecord pidRecord, Instant seen) {}
+
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final int maxPending;
+    private final int capacity;
+    private final AtomicLong dropped = new AtomicLong();
+    /** Fingerprint of the last stored version, per slot. 0 means empty. */
+    private final AtomicLongArray stored;
+
+    /**
+     * @param maxPending      the amount of pending records to request a flush.
+     * @param capacity        the maximum amount of pending records.
+     * @param expectedRecords the amount of slots for stored versions (8 bytes each).
+     */
+    ResolvedRecordsBuffer(int maxPending, int capacity, long expectedRecords) {
+        this.maxPending = maxPending;
+        this.capacity = Math.max(capacity, maxPending);
+        this.stored = new AtomicLongArray((int) Math.min(expectedRecords, Integer.MAX_VALUE - 8));
+    }
+
+    private int slotOf(PIDRecord pidRecord) {
+        int hash = Hashing.murmur3_32_fixed().hashString(pidRecord.getPid(), StandardCharsets.UTF_8).asInt();
+        return Math.floorMod(hash, stored.length());
+    }
+
+    private static long fingerprintOf(PIDRecord pidRecord) {
+        long fingerprint = Hashing.farmHashFingerprint64()
+            .hashString(pidRecord.getPid() + " " + pidRecord.getEtag(), StandardCharsets.UTF_8)
+            .asLong();
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * Adds a resolved record to the buffer, if this version is not the one
+     * stored last.
+     * 
+     * @param pidRecord the resolved record.
+     * @param now       the time of resolution.
+     * @return true, if the buffer is full and should be flushed.
+     */
+    boolean offer(PIDRecord pidRecord, Instant now) {
+        if (stored.get(slotOf(pidRecord)) == fingerprintOf(pidRecord)) {
+            return false;
+        }
+        pending.merge(
+            pidRecord.getPid(),
+            new Pending(pidRecord, now),
+            (old, latest) -> new Pending(latest.pidRecord(), old.seen()));
+        return pending.size() >= maxPending;
+    }
+
+    /**
+     * @return true if no more records should be offered, as the capacity is
+     *         reached. Concurrent offers may exceed it slightly.
+     */
+    boolean isAtCapacity() {
+        return pending.size() >= capacity;
+    }
+
+    /**
+     * Puts records back which could not be stored. A record of the same PID
+     * which was resolved meanwhile is newer and is kept. Records which do not
+     * fit into the capacity anymore are dropped.
+     * 
+     * @param records the records taken with {@link #drain()}.
+     */
+    void requeue(List<Pending> records) {
+        for (Pending p : records) {
+            String pid = p.pidRecord().getPid();
+            if (!pending.containsKey(pid) && isAtCapacity()) {
+                dropped.incrementAndGet();
+            } else {
+                pending.putIfAbsent(pid, p);
+            }
+        }
+    }
+
+    /**
+     * Removes all pending records from the buffer.
+     * 
+     * @return the removed records.
+     */
+    List<Pending> drain() {
+        List<Pending> result = new ArrayList<>(pending.size());
+        for (String pid : pending.keySet()) {
+            Pending removed = pending.remove(pid);
+            if (removed != null) {
+                result.add(removed);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remembers that the given records have been stored, so resolving them
+     * again will not add them to the buffer, until another version is stored.
+     * 
+     * @param records the stored records.
+     */
+    void markStored(List<Pending> records) {
+        records.forEach(p -> stored.set(slotOf(p.pidRecord()), fingerprintOf(p.pidRecord())));
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * @return the amount of records dropped so far, as the capacity was reached.
+     */
+    long dropped() {
+        return dropped.get();
+    }
+}
@@ -4,8 +4,12 @@ import java.io.Serializable;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -13,8 +17,15 @@ import jakarta.validation.constraints.NotNull;
  * Stores information about a known PID so it can be stored in a database.
  * 
  * The use of storing this information is to have a logbook of all created PIDs.
+ * 
+ * The timestamps are indexed together with the PID, so range queries and
+ * (keyset) pagination ordered by a timestamp can be answered using the index.
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_known_pid_created", columnList = "created, pid"),
+    @Index(name = "idx_known_pid_modified", columnList = "modified, pid")
+})
 public class KnownPid implements Serializable {
     @Id
     @NotBlank(message = "The known PID.")
@@ -23,6 +34,15 @@ public class KnownPid implements Serializable {
     private Instant created;
     @NotNull(message = "The timestamp of the most recently performed modification.")
     private Instant modified;
+    /**
+     * The etag of the record as it was seen by this service the last time (on
+     * creation, update or resolve, depending on the storage strategy). May be null
+     * for PIDs stored before this information was available.
+     * <p>
+     * Not part of the public representation and ignored in equality checks.
+     */
+    @JsonIgnore
+    private String recordEtag;
 
 
     public KnownPid() {}
@@ -57,6 +77,14 @@ public class KnownPid implements Serializable {
         this.modified = modified.truncatedTo(ChronoUnit.MILLIS);
     }
 
+    public String getRecordEtag() {
+        return recordEtag;
+    }
+
+    public void setRecordEtag(String recordEtag) {
+        this.recordEtag = recordEtag;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,56 @@
+package edu.kit.datamanager.pit.pidlog;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.criteria.Predicate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Query specifications for {@link KnownPid}s, to be used with
+ * {@link KnownPidsDao}.
+ */
+public class KnownPidSpecifications {
+
+    private KnownPidSpecifications() {}
+
+    /**
+     * Matches all known PIDs within the given (inclusive) bounds for the creation
+     * and modification timestamps. All bounds are optional. If no bound is given,
+     * all known PIDs match.
+     * 
+     * As all bounds are part of a single query, filtering and paging happens
+     * within the database (using the indexes on the timestamps).
+     * 
+     * @param createdAfter   lower bound of the creation timestamp, or null.
+     * @param createdBefore  upper bound of the creation timestamp, or null.
+     * @param modifiedAfter  lower bound of the modification timestamp, or null.
+     * @param modifiedBefore upper bound of the modification timestamp, or null.
+     * @return the specification.
+     */
+    public static Specification<KnownPid> within(
+        Instant createdAfter,
+        Instant createdBefore,
+        Instant modifiedAfter,
+        Instant modifiedBefore
+    ) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (createdAfter != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("created"), createdAfter));
+            }
+            if (createdBefore != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("created"), createdBefore));
+            }
+            if (modifiedAfter != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("modified"), modifiedAfter));
+            }
+            if (modifiedBefore != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("modified"), modifiedBefore));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
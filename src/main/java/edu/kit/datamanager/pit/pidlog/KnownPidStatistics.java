@@ -0,0 +1,16 @@
+package edu.kit.datamanager.pit.pidlog;
+
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * The amount of known PIDs created and modified within a time bucket.
+ * 
+ * @param start    the start of the bucket.
+ * @param created  the amount of PIDs created within the bucket.
+ * @param modified the amount of PIDs which were last modified within the
+ *                 bucket.
+ */
+@Schema(description = "Amount of known PIDs created and (last) modified within a time bucket.")
+public record KnownPidStatistics(Instant start, long created, long modified) {}
@@ -3,11 +3,16 @@ package edu.kit.datamanager.pit.pidlog;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Object to access known PIDs from the database.
@@ -18,8 +23,10 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  * 
  * as well as the general concept documented in
  * https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#repositories.core-concepts
+ * 
+ * Manually implemented methods are defined in {@link KnownPidsDaoCustom}.
  */
-public interface KnownPidsDao extends JpaRepository<KnownPid, String>, JpaSpecificationExecutor<KnownPid> {
+public interface KnownPidsDao extends JpaRepository<KnownPid, String>, JpaSpecificationExecutor<KnownPid>, KnownPidsDaoCustom {
     Optional<KnownPid> findByPid(String pid);
 
     Collection<KnownPid> findDistinctPidsByCreated(Instant created);
@@ -41,4 +48,12 @@ public interface KnownPidsDao extends JpaRepository<KnownPid, String>, JpaSpecif
     long countDistinctPidsByCreatedBetween(Instant from, Instant to);
 
     long countDistinctPidsByModifiedBetween(Instant from, Instant to);
+
+    /**
+     * Streams all PIDs without loading the entities. Requires a transaction and
+     * the stream to be closed after use.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "10000"))
+    @Query("select k.pid from KnownPid k")
+    Stream<String> streamAllPids();
 }
@@ -0,0 +1,39 @@
+package edu.kit.datamanager.pit.pidlog;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Manually implemented additions to {@link KnownPidsDao}.
+ */
+public interface KnownPidsDaoCustom {
+    /**
+     * Inserts new known PIDs in batches.
+     * 
+     * In contrast to `saveAll`, this does not check if the PIDs already exist
+     * (which would cause a select for each of them). The caller has to make sure
+     * none of the PIDs is stored yet.
+     * 
+     * Note: Flushes and clears the persistence context after each batch.
+     * 
+     * @param newPids the PIDs to insert.
+     */
+    void insertAll(Collection<KnownPid> newPids);
+
+    /**
+     * Counts the created and modified PIDs per time bucket (UTC). The database
+     * counts the PIDs per distinct timestamp (GROUP BY), using the timestamp
+     * indexes for the range restriction. These counts are summed up per bucket.
+     * This way, the buckets do not depend on the time zone of the database.
+     * 
+     * Note: As only the latest modification is stored, a PID counts as modified
+     * only in the bucket of its most recent modification.
+     * 
+     * @param bucket the size of the buckets.
+     * @param from   the earliest timestamp to consider (inclusive), or null.
+     * @param to     the latest timestamp to consider (inclusive), or null.
+     * @return the non-empty buckets, ordered by their start.
+     */
+    List<KnownPidStatistics> countPerBucket(TimeBucket bucket, Instant from, Instant to);
+}
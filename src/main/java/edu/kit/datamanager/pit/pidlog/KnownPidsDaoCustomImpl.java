@@ -0,0 +1,96 @@
+package edu.kit.datamanager.pit.pidlog;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of {@link KnownPidsDaoCustom}, detected by spring data due to
+ * its name.
+ */
+public class KnownPidsDaoCustomImpl implements KnownPidsDaoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Should match the JDBC batch size of hibernate to make use of it. */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public void insertAll(Collection<KnownPid> newPids) {
+        int count = 0;
+        for (KnownPid newPid : newPids) {
+            entityManager.persist(newPid);
+            count++;
+            if (count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<KnownPidStatistics> countPerBucket(TimeBucket bucket, Instant from, Instant to) {
+        Map<Instant, long[]> counts = new TreeMap<>();
+        countInto(counts, 0, "created", bucket, from, to);
+        countInto(counts, 1, "modified", bucket, from, to);
+        List<KnownPidStatistics> result = new ArrayList<>(counts.size());
+        counts.forEach((start, c) -> result.add(new KnownPidStatistics(start, c[0], c[1])));
+        return result;
+    }
+
+    private void countInto(
+        Map<Instant, long[]> counts,
+        int index,
+        String attribute,
+        TimeBucket bucket,
+        Instant from,
+        Instant to
+    ) {
+        // Groups by the exact timestamp only. Date functions of the database would
+        // depend on its time zone, so the UTC buckets are computed from the Instants.
+        String path = "k." + attribute;
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(path)
+                .append(", count(k) from KnownPid k where 1 = 1");
+        if (from != null) {
+            jpql.append(" and ").append(path).append(" >= :from");
+        }
+        if (to != null) {
+            jpql.append(" and ").append(path).append(" <= :to");
+        }
+        jpql.append(" group by ").append(path);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        query.setHint("org.hibernate.fetchSize", 10000);
+        try (Stream<Object[]> rows = query.getResultStream()) {
+            rows.forEach(row -> {
+                Instant start = bucket.start((Instant) row[0]);
+                long count = ((Number) row[1]).longValue();
+                counts.computeIfAbsent(start, key -> new long[2])[index] += count;
+            });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package edu.kit.datamanager.pit.pidlog;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The size of the time intervals used to aggregate known PIDs in statistics.
+ * 
+ * The buckets are computed in UTC from the timestamps as read by hibernate, so
+ * they do not depend on the time zone of the JVM, the database or the
+ * connection.
+ */
+public enum TimeBucket {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /**
+     * @param timestamp a timestamp.
+     * @return the start of the bucket containing the timestamp (UTC).
+     */
+    Instant start(Instant timestamp) {
+        return switch (this) {
+            case HOUR -> timestamp.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> timestamp.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> timestamp.atZone(ZoneOffset.UTC)
+                    .withDayOfMonth(1)
+                    .truncatedTo(ChronoUnit.DAYS)
+                    .toInstant();
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package edu.kit.datamanager.pit.pidsystem;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+
+/**
+ * Runs the operations of any (blocking) {@link IIdentifierSystem} on an
+ * executor. All current implementations (Handle, in-memory, local database)
+ * block on I/O, so this adapter serves all of them.
+ */
+public class AsyncIdentifierSystem implements IAsyncIdentifierSystem, AutoCloseable {
+
+    private final IIdentifierSystem system;
+    protected final ExecutorService executor;
+
+    /**
+     * @param system   the system to call.
+     * @param executor the executor to call it on. Closed with this adapter.
+     */
+    public AsyncIdentifierSystem(IIdentifierSystem system, ExecutorService executor) {
+        this.system = system;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a blocking call on the executor.
+     */
+    protected <T> CompletableFuture<T> supply(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits for an operation and returns its result. Exceptions of the operation
+     * are thrown as they are, like the synchronous method would.
+     *
+     * @param operation the operation to wait for.
+     * @return the result of the operation.
+     * @throws IOException if the operation threw an IOException, or waiting was
+     *                     interrupted.
+     */
+    public static <T> T await(CompletableFuture<T> operation) throws IOException {
+        try {
+            return operation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an operation.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            } else if (cause instanceof IOException io) {
+                throw io;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isIdentifierRegistered(String pid) {
+        return supply(() -> system.isIdentifierRegistered(pid));
+    }
+
+    @Override
+    public CompletableFuture<PIDRecord> queryAllProperties(String pid) {
+        return supply(() -> system.queryAllProperties(pid));
+    }
+
+    @Override
+    public CompletableFuture<String> queryProperty(String pid, TypeDefinition typeDefinition) {
+        return supply(() -> system.queryProperty(pid, typeDefinition));
+    }
+
+    @Override
+    public CompletableFuture<String> registerPID(PIDRecord pidRecord) {
+        return supply(() -> system.registerPID(pidRecord));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePID(PIDRecord pidRecord) {
+        return supply(() -> system.updatePID(pidRecord));
+    }
+
+    @Override
+    public CompletableFuture<PIDRecord> queryByType(String pid, TypeDefinition typeDefinition) {
+        return supply(() -> system.queryByType(pid, typeDefinition));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deletePID(String pid) {
+        return supply(() -> system.deletePID(pid));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
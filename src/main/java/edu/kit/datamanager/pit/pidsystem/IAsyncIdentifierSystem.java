@@ -0,0 +1,56 @@
+package edu.kit.datamanager.pit.pidsystem;
+
+import java.util.concurrent.CompletableFuture;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+
+/**
+ * Asynchronous counterpart of {@link IIdentifierSystem}.
+ *
+ * Every method starts the operation and returns immediately. The returned
+ * future completes with the result, or exceptionally with the exception the
+ * synchronous method would have thrown (e.g. a PidNotFoundException). Use
+ * {@link AsyncIdentifierSystem#await(CompletableFuture)} to get the result with
+ * the original exception.
+ *
+ * Operations do not run on the calling thread. Thread-bound state, like the
+ * security context of a request, is not available to them.
+ */
+public interface IAsyncIdentifierSystem {
+
+    /**
+     * @see IIdentifierSystem#isIdentifierRegistered(String)
+     */
+    public CompletableFuture<Boolean> isIdentifierRegistered(String pid);
+
+    /**
+     * @see IIdentifierSystem#queryAllProperties(String)
+     */
+    public CompletableFuture<PIDRecord> queryAllProperties(String pid);
+
+    /**
+     * @see IIdentifierSystem#queryProperty(String, TypeDefinition)
+     */
+    public CompletableFuture<String> queryProperty(String pid, TypeDefinition typeDefinition);
+
+    /**
+     * @see IIdentifierSystem#registerPID(PIDRecord)
+     */
+    public CompletableFuture<String> registerPID(PIDRecord pidRecord);
+
+    /**
+     * @see IIdentifierSystem#updatePID(PIDRecord)
+     */
+    public CompletableFuture<Boolean> updatePID(PIDRecord pidRecord);
+
+    /**
+     * @see IIdentifierSystem#queryByType(String, TypeDefinition)
+     */
+    public CompletableFuture<PIDRecord> queryByType(String pid, TypeDefinition typeDefinition);
+
+    /**
+     * @see IIdentifierSystem#deletePID(String)
+     */
+    public CompletableFuture<Boolean> deletePID(String pid);
+}
@@ -0,0 +1,37 @@
+package edu.kit.datamanager.pit.pitservice;
+
+import java.util.concurrent.CompletableFuture;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+import edu.kit.datamanager.pit.pidsystem.IAsyncIdentifierSystem;
+
+/**
+ * Asynchronous counterpart of {@link ITypingService}, to overlap independent
+ * operations (e.g. validating a record while its PID is generated).
+ *
+ * See {@link IAsyncIdentifierSystem} on how results and exceptions are
+ * reported.
+ */
+public interface IAsyncTypingService extends IAsyncIdentifierSystem {
+
+    /**
+     * @see ITypingService#validate(PIDRecord)
+     */
+    public CompletableFuture<Void> validate(PIDRecord pidRecord);
+
+    /**
+     * @see ITypingService#describeType(String)
+     */
+    public CompletableFuture<TypeDefinition> describeType(String typeIdentifier);
+
+    /**
+     * @see ITypingService#queryAllProperties(String, boolean)
+     */
+    public CompletableFuture<PIDRecord> queryAllProperties(String pid, boolean includePropertyNames);
+
+    /**
+     * @see ITypingService#queryByType(String, String, boolean)
+     */
+    public CompletableFuture<PIDRecord> queryByType(String pid, String typeIdentifier, boolean includePropertyNames);
+}
@@ -66,9 +66,10 @@ public interface ITypingService extends IIdentifierSystem {
     public PIDRecord queryByType(String pid, String typeIdentifier, boolean includePropertyNames) throws IOException;
 
     /**
-     * Returns an operations instance, configured with this typingService.
+     * Returns an operations instance, configured with the semantic type index of
+     * this typingService.
      * 
-     * Convenience method for `new Operations(typingService)`.
+     * Convenience method for `new Operations(semanticTypeIndex)`.
      * 
      * @return an operation instance.
      */
@@ -0,0 +1,50 @@
+package edu.kit.datamanager.pit.pitservice.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+import edu.kit.datamanager.pit.pidsystem.AsyncIdentifierSystem;
+import edu.kit.datamanager.pit.pitservice.IAsyncTypingService;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+/**
+ * Runs the operations of an {@link ITypingService} on an executor.
+ */
+public class AsyncTypingService extends AsyncIdentifierSystem implements IAsyncTypingService {
+
+    private final ITypingService typingService;
+
+    /**
+     * @param typingService the service to call.
+     * @param executor      the executor to call it on. Closed with this service.
+     */
+    public AsyncTypingService(ITypingService typingService, ExecutorService executor) {
+        super(typingService, executor);
+        this.typingService = typingService;
+    }
+
+    @Override
+    public CompletableFuture<Void> validate(PIDRecord pidRecord) {
+        return supply(() -> {
+            typingService.validate(pidRecord);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<TypeDefinition> describeType(String typeIdentifier) {
+        return supply(() -> typingService.describeType(typeIdentifier));
+    }
+
+    @Override
+    public CompletableFuture<PIDRecord> queryAllProperties(String pid, boolean includePropertyNames) {
+        return supply(() -> typingService.queryAllProperties(pid, includePropertyNames));
+    }
+
+    @Override
+    public CompletableFuture<PIDRecord> queryByType(String pid, String typeIdentifier, boolean includePropertyNames) {
+        return supply(() -> typingService.queryByType(pid, typeIdentifier, includePropertyNames));
+    }
+}
@@ -102,6 +102,7 @@ public class EmbeddedStrictValidatorStrategy implements IValidationStrategy {
                 // if profile.allowsAdditionalAttributes() {...} else
                 throw new RecordValidationException(
                         pidRecord,
+                        attributeKey,
                         String.format("Attribute %s is not allowed in profile %s",
                                 attributeKey,
                                 profile.getIdentifier()));
@@ -127,6 +128,7 @@ public class EmbeddedStrictValidatorStrategy implements IValidationStrategy {
                 LOG.error("'null' record value found for key {}.", attributeKey);
                 throw new RecordValidationException(
                         pidRecord,
+                        attributeKey,
                         String.format("Validation of value %s against type %s failed.",
                                 value,
                                 type.getIdentifier()));
@@ -136,6 +138,7 @@ public class EmbeddedStrictValidatorStrategy implements IValidationStrategy {
                 LOG.error("Validation of value {} against type {} failed.", value, type.getIdentifier());
                 throw new RecordValidationException(
                         pidRecord,
+                        attributeKey,
                         String.format("Validation of value %s against type %s failed.",
                                 value,
                                 type.getIdentifier()));
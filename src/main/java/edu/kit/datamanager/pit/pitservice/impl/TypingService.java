@@ -15,6 +15,7 @@ import java.util.Optional;
 
 import edu.kit.datamanager.pit.pidsystem.IIdentifierSystem;
 import edu.kit.datamanager.pit.typeregistry.ITypeRegistry;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex;
 import edu.kit.datamanager.pit.pitservice.ITypingService;
 import edu.kit.datamanager.pit.pitservice.IValidationStrategy;
 import edu.kit.datamanager.pit.common.ExternalServiceException;
@@ -42,6 +43,7 @@ public class TypingService implements ITypingService {
     protected final LoadingCache<String, TypeDefinition> typeCache;
     protected final IIdentifierSystem identifierSystem;
     protected final ITypeRegistry typeRegistry;
+    protected final SemanticTypeIndex semanticIndex;
 
     /**
      * A validation strategy. Will never be null.
@@ -54,11 +56,12 @@ public class TypingService implements ITypingService {
     protected IValidationStrategy defaultStrategy = null;
 
     public TypingService(IIdentifierSystem identifierSystem, ITypeRegistry typeRegistry,
-            LoadingCache<String, TypeDefinition> typeCache) {
+            LoadingCache<String, TypeDefinition> typeCache, SemanticTypeIndex semanticIndex) {
         super();
         this.identifierSystem = identifierSystem;
         this.typeRegistry = typeRegistry;
         this.typeCache = typeCache;
+        this.semanticIndex = semanticIndex;
     }
 
     @Override
@@ -225,7 +228,7 @@ public class TypingService implements ITypingService {
     }
 
     public Operations getOperations()  {
-        return new Operations(this);
+        return new Operations(this.semanticIndex);
     }
 
 }
@@ -0,0 +1,117 @@
+package edu.kit.datamanager.pit.typeregistry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.google.common.cache.Cache;
+
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+
+/**
+ * Maps type PIDs to their meaning (e.g. "date of creation"), without
+ * contacting the type registry.
+ *
+ * Well-known types are always recognized. Other types are recognized by their
+ * human readable name, if their definition is in the type cache. The index of
+ * cached types is rebuilt periodically in the background; types cached since
+ * the last rebuild are looked up in the cache directly.
+ *
+ * Semantic reasoning in some sense (e.g. types extending known types) is
+ * planned but not yet supported by our TypeDefinition.
+ */
+public class SemanticTypeIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SemanticTypeIndex.class);
+
+    public enum Role {
+        DATE_CREATED,
+        DATE_MODIFIED
+    }
+
+    /**
+     * @param role        the meaning of the type.
+     * @param isWellKnown true if the type is a well-known type, false if it was
+     *                    recognized by its name only.
+     */
+    public record Match(Role role, boolean isWellKnown) {}
+
+    private static final Map<String, Role> WELL_KNOWN = Map.of(
+        "21.T11148/29f92bd203dd3eaa5a1f", Role.DATE_CREATED,
+        "21.T11148/aafd5fb4c7222e2d950a", Role.DATE_CREATED,
+        "21.T11148/397d831aa3a9d18eb52c", Role.DATE_MODIFIED
+    );
+
+    /*
+     * This can be removed as soon as we have some default FAIR DO types new type
+     * definitions can refer to (e.g. "extend" them or declare the same meaning as
+     * our known types, see above)
+     */
+    private static final Map<String, Role> NAMES = Map.of(
+        "dateCreated", Role.DATE_CREATED,
+        "createdAt", Role.DATE_CREATED,
+        "creationDate", Role.DATE_CREATED,
+        "dateModified", Role.DATE_MODIFIED,
+        "lastModified", Role.DATE_MODIFIED,
+        "modificationDate", Role.DATE_MODIFIED
+    );
+
+    private final Cache<String, TypeDefinition> typeCache;
+    private volatile Map<String, Role> byName = Map.of();
+
+    public SemanticTypeIndex(Cache<String, TypeDefinition> typeCache) {
+        this.typeCache = typeCache;
+    }
+
+    /**
+     * @param typePid the PID of a type, e.g. an attribute key of a record.
+     * @return the meaning of the type, if it is known.
+     */
+    public Optional<Match> lookup(String typePid) {
+        Role role = WELL_KNOWN.get(typePid);
+        if (role != null) {
+            return Optional.of(new Match(role, true));
+        }
+        role = byName.get(typePid);
+        if (role == null) {
+            // getIfPresent never loads, so this does not cause a request
+            TypeDefinition type = typeCache.getIfPresent(typePid);
+            role = type == null || type.getName() == null ? null : NAMES.get(type.getName());
+        }
+        return Optional.ofNullable(role).map(r -> new Match(r, false));
+    }
+
+    /**
+     * Rebuilds the index from the type definitions (and their properties) in the
+     * type cache.
+     */
+    @Scheduled(fixedDelayString = "${pit.typeregistry.semantic-index.refresh-ms:60000}")
+    public void refresh() {
+        Map<String, Role> index = new HashMap<>();
+        Set<String> visited = new HashSet<>();
+        for (TypeDefinition type : typeCache.asMap().values()) {
+            collect(type, index, visited);
+        }
+        this.byName = Map.copyOf(index);
+        LOG.debug("Indexed {} semantic types of {} cached types.", index.size(), visited.size());
+    }
+
+    private static void collect(TypeDefinition type, Map<String, Role> index, Set<String> visited) {
+        if (type == null || type.getIdentifier() == null || !visited.add(type.getIdentifier())) {
+            return;
+        }
+        Role role = type.getName() == null ? null : NAMES.get(type.getName());
+        if (role != null) {
+            index.put(type.getIdentifier(), role);
+        }
+        for (TypeDefinition subType : type.getSubTypes().values()) {
+            collect(subType, index, visited);
+        }
+    }
+}
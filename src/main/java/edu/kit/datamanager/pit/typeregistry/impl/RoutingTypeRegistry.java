@@ -0,0 +1,155 @@
+package edu.kit.datamanager.pit.typeregistry.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.cache.LoadingCache;
+
+import edu.kit.datamanager.pit.configuration.ApplicationProperties;
+import edu.kit.datamanager.pit.configuration.TypeRegistryProperties;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+import edu.kit.datamanager.pit.typeregistry.ITypeRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Forwards each query to the type registry responsible for the prefix of the
+ * type PID.
+ *
+ * The registries configured in {@link TypeRegistryProperties#getRegistries()}
+ * are accessed directly at their API. Each of them has its own HTTP client,
+ * i.e. its own connection pool (which limits the concurrent requests), HTTP
+ * cache and timeouts, so a slow registry does not affect the others. Types
+ * with other prefixes are resolved by the fallback registry.
+ *
+ * Registries without a base URI are accessed at the API of the default
+ * registry (pit.typeregistry.baseURI).
+ */
+public class RoutingTypeRegistry implements ITypeRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoutingTypeRegistry.class);
+    // path of the objects API of the default registry, relative to its base URI
+    private static final String DEFAULT_API_PATH = "objects/";
+
+    @Autowired
+    private TypeRegistryProperties props;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private LoadingCache<String, TypeDefinition> typeCache;
+
+    private final ITypeRegistry fallback;
+    private final Map<String, ITypeRegistry> registries = new ConcurrentHashMap<>();
+    private final List<CloseableHttpClient> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param fallback resolves types which have no registry for their prefix.
+     */
+    public RoutingTypeRegistry(ITypeRegistry fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Creates a registry for each configured prefix. Runs after autowiring.
+     */
+    @PostConstruct
+    public void init() throws URISyntaxException {
+        for (TypeRegistryProperties.Registry registry : props.getRegistries()) {
+            URI apiBaseUri = registry.getBaseUri() != null
+                    ? registry.getBaseUri().toURI()
+                    : defaultApiUri(applicationProperties.getTypeRegistryUri());
+            CloseableHttpClient client = TypeRegistry.createHttpClient(props.forRegistry(registry));
+            clients.add(client);
+            addRegistry(registry.getPrefix(), new TypeRegistry(
+                    apiBaseUri,
+                    TypeRegistry.createRestTemplate(client),
+                    typeCache));
+            LOG.info("Resolving types with prefix {} at {}.", registry.getPrefix(), apiBaseUri);
+        }
+    }
+
+    /**
+     * @param registryUri the base URI of a registry, e.g.
+     *                    "https://dtr-test.pidconsortium.eu/".
+     * @return the URI of its objects API, to which type PIDs are appended.
+     */
+    static URI defaultApiUri(URL registryUri) throws URISyntaxException {
+        String base = registryUri.toString();
+        if (!base.endsWith("/")) {
+            base += "/";
+        }
+        return new URI(base).resolve(DEFAULT_API_PATH);
+    }
+
+    /**
+     * @param prefix a handle prefix, possibly with a trailing slash.
+     * @return the prefix as used to route type PIDs.
+     */
+    public static String normalizePrefix(String prefix) {
+        String normalized = prefix.strip();
+        if (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    /**
+     * @param typeIdentifier the PID of a type.
+     * @return the handle prefix of the PID, or null if it has none.
+     */
+    public static String prefixOf(String typeIdentifier) {
+        int slash = typeIdentifier.indexOf('/');
+        return slash > 0 ? typeIdentifier.substring(0, slash) : null;
+    }
+
+    /**
+     * @param prefix   the handle prefix of the types, e.g. "21.T11148".
+     * @param registry resolves the types with this prefix.
+     * @throws IllegalArgumentException if a registry for the prefix exists.
+     */
+    public void addRegistry(String prefix, ITypeRegistry registry) {
+        String normalized = normalizePrefix(prefix);
+        if (registries.putIfAbsent(normalized, registry) != null) {
+            throw new IllegalArgumentException("Several type registries configured for prefix " + normalized + ".");
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (CloseableHttpClient client : clients) {
+            client.close();
+        }
+        clients.clear();
+    }
+
+    @Override
+    public TypeDefinition queryTypeDefinition(String typeIdentifier) throws IOException, URISyntaxException {
+        return route(typeIdentifier).queryTypeDefinition(typeIdentifier);
+    }
+
+    /**
+     * @param typeIdentifier the PID of a type.
+     * @return the registry responsible for the prefix of the PID.
+     */
+    protected ITypeRegistry route(String typeIdentifier) {
+        String prefix = prefixOf(typeIdentifier);
+        if (prefix != null) {
+            ITypeRegistry registry = registries.get(prefix);
+            if (registry != null) {
+                return registry;
+            }
+        }
+        return fallback;
+    }
+}
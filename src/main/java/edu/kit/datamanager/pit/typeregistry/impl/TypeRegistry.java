@@ -9,20 +9,30 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.LoadingCache;
 import edu.kit.datamanager.pit.configuration.ApplicationProperties;
+import edu.kit.datamanager.pit.configuration.TypeRegistryProperties;
 import edu.kit.datamanager.pit.domain.ProvenanceInformation;
 import edu.kit.datamanager.pit.domain.TypeDefinition;
 import edu.kit.datamanager.pit.typeregistry.ITypeRegistry;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.concurrent.ExecutionException;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.cache.CacheConfig;
+import org.apache.hc.client5.http.impl.cache.CachingHttpClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -32,32 +42,105 @@ import org.springframework.web.util.UriComponentsBuilder;
  * this particular registry are using. The prefix also allows to determine,
  * whether a given PID might be a type or property registered at this
  * TypeRegistry.
+ *
+ * Requests use the pooled and caching HTTP client configured in
+ * {@link TypeRegistryProperties}. By default, types are resolved via the
+ * handle proxy, which redirects to the registry. If an API base URI is given,
+ * the registry is accessed directly, saving the redirect.
  */
 public class TypeRegistry implements ITypeRegistry {
 
     private static final Logger LOG = LoggerFactory.getLogger(TypeRegistry.class);
+    // thread safe and expensive to create, so it is shared by all requests
+    private static final ObjectMapper MAPPER = new ObjectMapper();
     @Autowired
     public LoadingCache<String, TypeDefinition> typeCache;
     @Autowired
     private ApplicationProperties applicationProperties;
 
-    protected RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("typeRegistryRestTemplate")
+    protected RestTemplate restTemplate;
+
+    // null if types are resolved via the handle proxy
+    protected URI apiBaseUri;
+
+    /**
+     * Resolves types via the handle proxy. Dependencies are autowired.
+     */
+    public TypeRegistry() {}
+
+    /**
+     * Resolves types directly at the API of a registry.
+     *
+     * @param apiBaseUri   the type PID is appended to this URI as path.
+     * @param restTemplate used for requests to the registry.
+     * @param typeCache    the cache which is used to resolve and store types.
+     */
+    public TypeRegistry(URI apiBaseUri, RestTemplate restTemplate, LoadingCache<String, TypeDefinition> typeCache) {
+        this.apiBaseUri = apiBaseUri;
+        this.restTemplate = restTemplate;
+        this.typeCache = typeCache;
+    }
+
+    /**
+     * Creates an HTTP client which keeps connections alive in a pool and caches
+     * responses, revalidating stale ones with ETag / Last-Modified. The pool
+     * size limits the concurrent requests.
+     *
+     * @param props the settings of the client.
+     * @return the client. It needs to be closed when it is not used anymore.
+     */
+    public static CloseableHttpClient createHttpClient(TypeRegistryProperties props) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(props.getConnectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(props.getResponseTimeoutMs()))
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(props.getConnectTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(props.getResponseTimeoutMs()))
+                .build();
+        return CachingHttpClients.custom()
+                .setCacheConfig(createCacheConfig(props))
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(props.getMaxConnections())
+                        .setMaxConnPerRoute(props.getMaxConnections())
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .build())
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(TimeValue.ofMilliseconds(props.getIdleTimeoutMs()))
+                .build();
+    }
+
+    public static CacheConfig createCacheConfig(TypeRegistryProperties props) {
+        return CacheConfig
+                .custom()
+                .setMaxObjectSize(props.getCacheMaxObjectSize())
+                .setMaxCacheEntries(props.getCacheMaxEntries())
+                .build();
+    }
+
+    public static RestTemplate createRestTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
 
     @Override
     public TypeDefinition queryTypeDefinition(String typeIdentifier) throws IOException, URISyntaxException {
         LOG.trace("Performing queryTypeDefinition({}).", typeIdentifier);
         String[] segments = typeIdentifier.split("/");
+        URI baseUri = this.apiBaseUri != null
+                ? this.apiBaseUri
+                : applicationProperties.getHandleBaseUri().toURI();
         UriComponentsBuilder uriBuilder = UriComponentsBuilder
-                .fromUri(
-                        applicationProperties
-                                .getHandleBaseUri()
-                                .toURI())
+                .fromUri(baseUri)
                 .pathSegment(segments);
         LOG.trace("Querying for type definition at URI {}.", uriBuilder);
-        ResponseEntity<String> response = restTemplate.exchange(uriBuilder.build().toUri(), HttpMethod.GET,
-                HttpEntity.EMPTY, String.class);
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode rootNode = mapper.readTree(response.getBody());
+        // parse the response stream directly, without copying it into a string
+        JsonNode rootNode = restTemplate.execute(uriBuilder.build().toUri(), HttpMethod.GET, null,
+                response -> MAPPER.readTree(response.getBody()));
+        if (rootNode == null || rootNode.isMissingNode()) {
+            throw new IOException("Empty response for type definition " + typeIdentifier + ".");
+        }
         LOG.trace("Constructing type definition from response.");
         return constructTypeDefinition(rootNode);
     }
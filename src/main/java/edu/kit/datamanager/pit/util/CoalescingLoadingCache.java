@@ -0,0 +1,115 @@
+package edu.kit.datamanager.pit.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.ForwardingLoadingCache.SimpleForwardingLoadingCache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * A Guava LoadingCache which loads values without holding a monitor.
+ *
+ * Guava runs the loader within a synchronized block on the cache entry. A
+ * virtual thread which blocks within a synchronized block (e.g. on a request
+ * to the type registry) pins its carrier thread, so a few slow loads can stall
+ * all virtual threads. This cache loads outside of any monitor instead.
+ * Concurrent requests for the same key still wait for a single load, and
+ * exceptions are reported like Guava does.
+ *
+ * Bulk operations (getAll, refresh) are delegated to Guava.
+ */
+public class CoalescingLoadingCache<K, V> extends SimpleForwardingLoadingCache<K, V> {
+
+    private record Loading<V>(Thread owner, CompletableFuture<V> result) {}
+
+    private final CacheLoader<? super K, V> loader;
+    private final ConcurrentMap<K, Loading<V>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingLoadingCache(CacheBuilder<? super K, ? super V> builder, CacheLoader<? super K, V> loader) {
+        super(builder.build(loader));
+        this.loader = loader;
+    }
+
+    @Override
+    public V get(K key) throws ExecutionException {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        Loading<V> loading = new Loading<>(Thread.currentThread(), new CompletableFuture<>());
+        Loading<V> other = inFlight.putIfAbsent(key, loading);
+        if (other != null) {
+            if (other.owner() == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive load of: " + key);
+            }
+            return await(other.result());
+        }
+        try {
+            // another load may have finished since the first lookup
+            value = getIfPresent(key);
+            if (value == null) {
+                value = loader.load(key);
+                if (value == null) {
+                    throw new InvalidCacheLoadException("CacheLoader returned null for key " + key + ".");
+                }
+                put(key, value);
+            }
+            loading.result().complete(value);
+            return value;
+        } catch (Throwable e) {
+            loading.result().completeExceptionally(e);
+            throw wrap(e);
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    @Override
+    public V getUnchecked(K key) {
+        try {
+            return get(key);
+        } catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    @Override
+    public V apply(K key) {
+        return getUnchecked(key);
+    }
+
+    private static <V> V await(CompletableFuture<V> result) throws ExecutionException {
+        try {
+            return Uninterruptibles.getUninterruptibly(result);
+        } catch (ExecutionException e) {
+            throw wrap(e.getCause());
+        }
+    }
+
+    /**
+     * Wraps an exception of the loader like Guava does. Exceptions may be
+     * thrown directly, so this declares to throw ExecutionException.
+     */
+    private static ExecutionException wrap(Throwable cause) throws ExecutionException {
+        if (cause instanceof InvalidCacheLoadException e) {
+            throw e;
+        }
+        if (cause instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        if (cause instanceof Error e) {
+            throw new ExecutionError(e);
+        }
+        if (cause instanceof RuntimeException e) {
+            throw new UncheckedExecutionException(e);
+        }
+        return new ExecutionException(cause);
+    }
+}
@@ -0,0 +1,169 @@
+package edu.kit.datamanager.pit.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.Optional;
+
+/**
+ * Parses RFC 3339 / ISO 8601 timestamps as found in PID records.
+ *
+ * Supported variants:
+ * - full timestamps with offset: 2021-12-21T17:36:09.541+00:00
+ * - any amount of fractional seconds (0-9 digits), seconds may be omitted
+ * - "Z" as offset, or offsets without colon (+0100)
+ * - lowercase "t" and "z", or a space instead of "T" (allowed by RFC 3339)
+ * - dates without time (2021-12-21), interpreted as the start of the day in UTC
+ *
+ * Timestamps without offset are ambiguous and not accepted.
+ *
+ * Attribute values are mostly not dates. Therefore, every value is checked
+ * against the syntax first. Values which do not match are rejected without
+ * throwing exceptions or allocating objects. Only syntactically valid values
+ * are parsed, using a shared formatter.
+ */
+public final class DateParser {
+
+    private static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .append(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+            .toFormatter();
+
+    private static final int INVALID = 0;
+    private static final int DATE = 1;
+    private static final int TIMESTAMP_ISO = 2;
+    /** Valid, but with a space separator or an offset without colon. */
+    private static final int TIMESTAMP_TO_NORMALIZE = 3;
+
+    private DateParser() {}
+
+    /**
+     * @param value a value which might be a date.
+     * @return the point in time, if the value is a supported date.
+     */
+    public static Optional<Instant> parse(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        int kind = classify(value);
+        try {
+            return switch (kind) {
+                case DATE -> Optional.of(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant());
+                case TIMESTAMP_ISO -> Optional.of(TIMESTAMP.parse(value, OffsetDateTime::from).toInstant());
+                case TIMESTAMP_TO_NORMALIZE -> Optional.of(TIMESTAMP.parse(normalize(value), OffsetDateTime::from).toInstant());
+                default -> Optional.empty();
+            };
+        } catch (DateTimeException e) {
+            // syntactically valid, but e.g. February 30th
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param value a value which might be a date.
+     * @return true if the value has the syntax of a supported date. It may still
+     *         be invalid, e.g. on February 30th.
+     */
+    public static boolean looksLikeDate(String value) {
+        return value != null && classify(value) != INVALID;
+    }
+
+    /**
+     * Checks the syntax of a value, without allocations.
+     */
+    private static int classify(String s) {
+        int length = s.length();
+        // shortest: 2021-12-21, longest: 2021-12-21T17:36:09.123456789+01:00
+        if (length < 10 || length > 35
+                || !digits(s, 0, 4) || s.charAt(4) != '-'
+                || !digits(s, 5, 2) || s.charAt(7) != '-'
+                || !digits(s, 8, 2)) {
+            return INVALID;
+        }
+        if (length == 10) {
+            return DATE;
+        }
+        boolean needsNormalization = false;
+        char separator = s.charAt(10);
+        if (separator == ' ') {
+            needsNormalization = true;
+        } else if (separator != 'T' && separator != 't') {
+            return INVALID;
+        }
+        // hh:mm
+        if (length < 16 || !digits(s, 11, 2) || s.charAt(13) != ':' || !digits(s, 14, 2)) {
+            return INVALID;
+        }
+        int i = 16;
+        // :ss
+        if (i < length && s.charAt(i) == ':') {
+            if (i + 3 > length || !digits(s, i + 1, 2)) {
+                return INVALID;
+            }
+            i += 3;
+            // .fraction
+            if (i < length && s.charAt(i) == '.') {
+                int start = ++i;
+                while (i < length && isDigit(s.charAt(i))) {
+                    i++;
+                }
+                int fractionDigits = i - start;
+                if (fractionDigits < 1 || fractionDigits > 9) {
+                    return INVALID;
+                }
+            }
+        }
+        // offset
+        if (i >= length) {
+            return INVALID;
+        }
+        char offset = s.charAt(i);
+        if (offset == 'Z' || offset == 'z') {
+            return i + 1 == length ? (needsNormalization ? TIMESTAMP_TO_NORMALIZE : TIMESTAMP_ISO) : INVALID;
+        }
+        if (offset != '+' && offset != '-') {
+            return INVALID;
+        }
+        int remaining = length - i - 1;
+        if (remaining == 5 && digits(s, i + 1, 2) && s.charAt(i + 3) == ':' && digits(s, i + 4, 2)) {
+            return needsNormalization ? TIMESTAMP_TO_NORMALIZE : TIMESTAMP_ISO;
+        }
+        if (remaining == 4 && digits(s, i + 1, 4)) {
+            return TIMESTAMP_TO_NORMALIZE;
+        }
+        return INVALID;
+    }
+
+    /**
+     * Converts a syntactically valid timestamp into the ISO syntax.
+     */
+    private static String normalize(String s) {
+        StringBuilder result = new StringBuilder(s.length() + 1).append(s);
+        if (result.charAt(10) == ' ') {
+            result.setCharAt(10, 'T');
+        }
+        int offsetStart = result.length() - 5;
+        char sign = result.charAt(offsetStart);
+        if ((sign == '+' || sign == '-') && result.indexOf(":", offsetStart) < 0) {
+            result.insert(offsetStart + 3, ':');
+        }
+        return result.toString();
+    }
+
+    private static boolean digits(String s, int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
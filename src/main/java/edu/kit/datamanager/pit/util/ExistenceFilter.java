@@ -0,0 +1,154 @@
+package edu.kit.datamanager.pit.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * An in-memory bloom filter in front of a store of PIDs. It answers the
+ * question "is this PID stored?" without accessing the store, if the answer is
+ * "definitely not". Otherwise, the caller has to ask the store.
+ * 
+ * Usage: Writes to the store have to be reported using {@link #put(String)}.
+ * Existing PIDs have to be loaded once using {@link #load(Stream)}. Until then,
+ * the filter answers "maybe" for every PID. If the store answers "no" after the
+ * filter answered "maybe", report it using {@link #reportFalsePositive()}.
+ * 
+ * Limitations: Removals can not be reflected, so removed PIDs will cause false
+ * positives. If other processes write to the same store, the filter will not
+ * know about these PIDs and may wrongly answer "definitely not". Therefore, a
+ * "definitely not" must never be passed on as an answer. Use it only to skip
+ * work which the store verifies anyway (e.g. a lookup before an insert, which
+ * fails on duplicates).
+ * 
+ * Metrics (tagged with the name of the store):
+ * - pit.existence.filter.fpp.expected: the false positive probability
+ * according to the amount of stored PIDs.
+ * - pit.existence.filter.fpp.observed: false positives / (false positives +
+ * negative answers).
+ * - pit.existence.filter.pids: the approximate amount of PIDs in the filter.
+ * - pit.existence.filter.negatives, pit.existence.filter.false.positives
+ */
+public class ExistenceFilter {
+
+    private final boolean isEnabled;
+    private final BloomFilter<CharSequence> filter;
+    private volatile boolean isLoaded = false;
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private ExistenceFilter() {
+        this.isEnabled = false;
+        this.filter = null;
+    }
+
+    /**
+     * Creates a filter and registers its metrics.
+     * 
+     * @param name                     name of the store, used as a metric tag.
+     * @param expectedPids             the amount of PIDs the filter is sized for.
+     * @param falsePositiveProbability the false positive probability when
+     *                                 containing the expected amount of PIDs.
+     * @param registry                 the registry for the metrics.
+     */
+    public ExistenceFilter(String name, long expectedPids, double falsePositiveProbability, MeterRegistry registry) {
+        this.isEnabled = true;
+        this.filter = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8),
+            expectedPids,
+            falsePositiveProbability);
+
+        Gauge.builder("pit.existence.filter.fpp.expected", this.filter, BloomFilter::expectedFpp)
+            .tag("store", name)
+            .register(registry);
+        Gauge.builder("pit.existence.filter.fpp.observed", this, ExistenceFilter::getObservedFalsePositiveRate)
+            .tag("store", name)
+            .register(registry);
+        Gauge.builder("pit.existence.filter.pids", this.filter, BloomFilter::approximateElementCount)
+            .tag("store", name)
+            .register(registry);
+        FunctionCounter.builder("pit.existence.filter.negatives", this.negatives, LongAdder::sum)
+            .tag("store", name)
+            .register(registry);
+        FunctionCounter.builder("pit.existence.filter.false.positives", this.falsePositives, LongAdder::sum)
+            .tag("store", name)
+            .register(registry);
+    }
+
+    /**
+     * @return a filter which always answers "maybe" and therefore has no effect.
+     */
+    public static ExistenceFilter disabled() {
+        return new ExistenceFilter();
+    }
+
+    /**
+     * @param pid the PID to check.
+     * @return false if the PID is definitely not in the store, true if it might
+     *         be.
+     */
+    public boolean mightContain(String pid) {
+        if (!isEnabled || !isLoaded) {
+            return true;
+        }
+        boolean result = filter.mightContain(pid);
+        if (!result) {
+            negatives.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Reports that a PID, for which the filter answered "maybe", is not in the
+     * store.
+     */
+    public void reportFalsePositive() {
+        if (isEnabled && isLoaded) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * @param pid a PID which has been written to the store.
+     */
+    public void put(String pid) {
+        if (isEnabled) {
+            filter.put(pid);
+        }
+    }
+
+    /**
+     * Adds all PIDs of the store to the filter. Afterwards, the filter will be
+     * used to answer requests. Writes reported during loading are not lost.
+     * 
+     * @param storedPids all PIDs in the store.
+     */
+    public void load(Stream<String> storedPids) {
+        if (isEnabled) {
+            storedPids.forEach(filter::put);
+            isLoaded = true;
+        }
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public boolean isLoaded() {
+        return isLoaded;
+    }
+
+    public double getObservedFalsePositiveRate() {
+        double fp = falsePositives.sum();
+        double all = fp + negatives.sum();
+        return all == 0 ? 0 : fp / all;
+    }
+}
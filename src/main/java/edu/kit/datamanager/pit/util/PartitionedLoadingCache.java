@@ -0,0 +1,242 @@
+package edu.kit.datamanager.pit.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+
+/**
+ * A LoadingCache which consists of several independent caches (partitions).
+ *
+ * Each key is stored in the partition selected by a function (e.g. by the
+ * prefix of a type PID), or in the fallback partition. Each partition has its
+ * own size limit, so many entries of one partition never evict the entries of
+ * another one.
+ *
+ * Bulk operations (getAll, asMap, size, stats) span all partitions.
+ */
+public class PartitionedLoadingCache<V> implements LoadingCache<String, V> {
+
+    private final Function<String, String> partitionOf;
+    private final Map<String, LoadingCache<String, V>> partitions;
+    private final LoadingCache<String, V> fallback;
+    private final List<LoadingCache<String, V>> all = new ArrayList<>();
+    private final MapView view = new MapView();
+
+    /**
+     * @param partitionOf returns the name of the partition of a key, or null.
+     * @param partitions  the partitions by name.
+     * @param fallback    stores keys without (known) partition.
+     */
+    public PartitionedLoadingCache(
+        Function<String, String> partitionOf,
+        Map<String, LoadingCache<String, V>> partitions,
+        LoadingCache<String, V> fallback
+    ) {
+        this.partitionOf = partitionOf;
+        this.partitions = Map.copyOf(partitions);
+        this.fallback = fallback;
+        this.all.addAll(this.partitions.values());
+        this.all.add(fallback);
+    }
+
+    /**
+     * @param key a key of this cache.
+     * @return the partition storing the key.
+     */
+    protected LoadingCache<String, V> partition(Object key) {
+        if (key instanceof String s) {
+            String name = partitionOf.apply(s);
+            if (name != null) {
+                return partitions.getOrDefault(name, fallback);
+            }
+        }
+        return fallback;
+    }
+
+    @Override
+    public V get(String key) throws ExecutionException {
+        return partition(key).get(key);
+    }
+
+    @Override
+    public V getUnchecked(String key) {
+        return partition(key).getUnchecked(key);
+    }
+
+    @Override
+    public ImmutableMap<String, V> getAll(Iterable<? extends String> keys) throws ExecutionException {
+        Map<String, V> result = new LinkedHashMap<>();
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                result.put(key, get(key));
+            }
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
+    @Override
+    @Deprecated
+    public V apply(String key) {
+        return getUnchecked(key);
+    }
+
+    @Override
+    public void refresh(String key) {
+        partition(key).refresh(key);
+    }
+
+    @Override
+    public V getIfPresent(Object key) {
+        return partition(key).getIfPresent(key);
+    }
+
+    @Override
+    public V get(String key, Callable<? extends V> loader) throws ExecutionException {
+        return partition(key).get(key, loader);
+    }
+
+    @Override
+    public ImmutableMap<String, V> getAllPresent(Iterable<? extends Object> keys) {
+        Map<String, V> result = new LinkedHashMap<>();
+        for (Object key : keys) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                result.put((String) key, value);
+            }
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
+    @Override
+    public void put(String key, V value) {
+        partition(key).put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(Object key) {
+        partition(key).invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends Object> keys) {
+        keys.forEach(this::invalidate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        all.forEach(LoadingCache::invalidateAll);
+    }
+
+    @Override
+    public long size() {
+        return all.stream().mapToLong(LoadingCache::size).sum();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return all.stream().map(LoadingCache::stats).reduce(CacheStats::plus).orElseThrow();
+    }
+
+    @Override
+    public ConcurrentMap<String, V> asMap() {
+        return view;
+    }
+
+    @Override
+    public void cleanUp() {
+        all.forEach(LoadingCache::cleanUp);
+    }
+
+    /**
+     * A view on all partitions. Single entry operations are forwarded to the
+     * partition of the key.
+     */
+    private final class MapView extends AbstractMap<String, V> implements ConcurrentMap<String, V> {
+
+        private final Set<Entry<String, V>> entries = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return Iterators.concat(Iterators.transform(
+                        all.iterator(), cache -> cache.asMap().entrySet().iterator()));
+            }
+
+            @Override
+            public int size() {
+                return all.stream().mapToInt(cache -> cache.asMap().size()).sum();
+            }
+        };
+
+        private ConcurrentMap<String, V> of(Object key) {
+            return partition(key).asMap();
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return of(key).containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return of(key).get(key);
+        }
+
+        @Override
+        public V put(String key, V value) {
+            return of(key).put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return of(key).remove(key);
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public V putIfAbsent(String key, V value) {
+            return of(key).putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return of(key).remove(key, value);
+        }
+
+        @Override
+        public boolean replace(String key, V oldValue, V newValue) {
+            return of(key).replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(String key, V value) {
+            return of(key).replace(key, value);
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class TypeValidationUtils {
         if (!missing.isEmpty()) {
             throw new RecordValidationException(
                     pidRecord,
+                    String.join(", ", missing),
                     "Missing mandatory types: " + missing);
         }
     }
@@ -0,0 +1,117 @@
+package edu.kit.datamanager.pit.web;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.common.InvalidContinuationTokenException;
+
+/**
+ * Converts keyset scroll positions over known PIDs to opaque tokens for clients
+ * and back.
+ * 
+ * A token contains the values of the sort properties (and the PID) of the last
+ * element of a page. The next page starts right after this element. In
+ * contrast to page numbers, this does not get slower for deep pages. Clients
+ * have to use the same sorting for all requests with the tokens.
+ * 
+ * The same applies to the sort values of Elasticsearch hits ("search_after")
+ * used by the record search.
+ */
+public class ContinuationToken {
+
+    private static final ObjectMapper MAPPER = Application.jsonObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> KEYS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<Object>> SORT_VALUES_TYPE = new TypeReference<>() {};
+
+    private ContinuationToken() {}
+
+    /**
+     * @param position the position after the last element of a page.
+     * @return a token to retrieve the following page.
+     */
+    public static String encode(KeysetScrollPosition position) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        position.getKeys().forEach((key, value) -> keys.put(key, String.valueOf(value)));
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(keys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize keyset position.", e);
+        }
+    }
+
+    /**
+     * @param token a token given by {@link #encode(KeysetScrollPosition)}, or an
+     *              empty string to start at the beginning.
+     * @return the position to continue from.
+     * @throws InvalidContinuationTokenException if the token can not be read.
+     */
+    public static ScrollPosition decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            Map<String, String> raw = MAPPER.readValue(json, KEYS_TYPE);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : raw.entrySet()) {
+                keys.put(entry.getKey(), typed(entry.getKey(), entry.getValue()));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException | IOException e) {
+            throw new InvalidContinuationTokenException(e.getMessage());
+        }
+    }
+
+    /**
+     * @param sortValues the sort values of the last hit of a search result.
+     * @return a token to retrieve the following hits.
+     */
+    public static String encodeSearchAfter(List<Object> sortValues) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(sortValues);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize sort values.", e);
+        }
+    }
+
+    /**
+     * @param token a token given by {@link #encodeSearchAfter(List)}, or an
+     *              empty string to start at the beginning.
+     * @return the sort values to continue after, or an empty list.
+     * @throws InvalidContinuationTokenException if the token can not be read.
+     */
+    public static List<Object> decodeSearchAfter(String token) {
+        if (token == null || token.isBlank()) {
+            return List.of();
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            return MAPPER.readValue(json, SORT_VALUES_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidContinuationTokenException(e.getMessage());
+        }
+    }
+
+    private static Object typed(String property, String value) {
+        return switch (property) {
+            case "pid" -> value;
+            case "created", "modified" -> Instant.parse(value);
+            default -> throw new InvalidContinuationTokenException("Unknown property: " + property);
+        };
+    }
+}
@@ -15,7 +15,10 @@
  */
 package edu.kit.datamanager.pit.web;
 
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
 import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidStatistics;
+import edu.kit.datamanager.pit.pidlog.TimeBucket;
 import edu.kit.datamanager.pit.domain.PIDRecord;
 import edu.kit.datamanager.pit.domain.SimplePidRecord;
 import io.swagger.v3.oas.annotations.Operation;
@@ -41,6 +44,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
@@ -52,6 +56,9 @@ import org.springframework.data.web.PageableDefault;
  */
 public interface ITypingRestResource {
 
+    /** Response header containing the token for the next page (keyset pagination). */
+    public static final String CONTINUATION_HEADER = "Continuation-Token";
+
     /**
      * Create a new PID using the record information provided in the request body.
      * The record is expected to contain the identifier of the matching profile.
@@ -74,8 +81,8 @@ public interface ITypingRestResource {
      */
     @PostMapping(
         path = "pid/",
-        consumes = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE},
-        produces = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE}
+        consumes = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE, SimplePidRecord.CONTENT_TYPE_CBOR},
+        produces = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE, SimplePidRecord.CONTENT_TYPE_CBOR}
     )
     @Operation(
         summary = "Create a new PID record",
@@ -86,7 +93,9 @@ public interface ITypingRestResource {
         required = true,
         content = {
             @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PIDRecord.class)),
-            @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class))
+            @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class)),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PIDRecord.class)),
+            @Content(mediaType = SimplePidRecord.CONTENT_TYPE_CBOR, schema = @Schema(implementation = SimplePidRecord.class))
         }
     )
     @ApiResponses(value = {
@@ -95,7 +104,9 @@ public interface ITypingRestResource {
             description = "Created",
             content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PIDRecord.class)),
-                @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class))
+                @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class)),
+                @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PIDRecord.class)),
+                @Content(mediaType = SimplePidRecord.CONTENT_TYPE_CBOR, schema = @Schema(implementation = SimplePidRecord.class))
         }),
         @ApiResponse(responseCode = "400", description = "Validation failed. See body for details. Contains also the validated record.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
         @ApiResponse(responseCode = "406", description = "Provided input is invalid with regard to the supported accept header (Not acceptable)", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
@@ -139,8 +150,8 @@ public interface ITypingRestResource {
      */
     @PutMapping(
         path = "pid/**",
-        consumes = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE},
-        produces = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE}
+        consumes = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE, SimplePidRecord.CONTENT_TYPE_CBOR},
+        produces = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE, SimplePidRecord.CONTENT_TYPE_CBOR}
     )
     @Operation(
         summary = "Update an existing PID record",
@@ -151,7 +162,9 @@ public interface ITypingRestResource {
         required = true,
         content = {
             @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PIDRecord.class)),
-            @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class))
+            @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class)),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PIDRecord.class)),
+            @Content(mediaType = SimplePidRecord.CONTENT_TYPE_CBOR, schema = @Schema(implementation = SimplePidRecord.class))
         }
     )
     @ApiResponses(value = {
@@ -160,7 +173,9 @@ public interface ITypingRestResource {
             description = "Success.",
             content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PIDRecord.class)),
-                @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class))
+                @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class)),
+                @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PIDRecord.class)),
+                @Content(mediaType = SimplePidRecord.CONTENT_TYPE_CBOR, schema = @Schema(implementation = SimplePidRecord.class))
             }),
         @ApiResponse(responseCode = "400", description = "Validation failed. See body for details.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
         @ApiResponse(responseCode = "406", description = "Provided input is invalid with regard to the supported accept header (Not acceptable)", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
@@ -199,7 +214,7 @@ public interface ITypingRestResource {
      */
     @GetMapping(
         path = "pid/**",
-        produces = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE}
+        produces = {MediaType.APPLICATION_JSON_VALUE, SimplePidRecord.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE, SimplePidRecord.CONTENT_TYPE_CBOR}
     )
     @Operation(summary = "Get the record of the given PID.", description = "Get the record to the given PID, if it exists. No validation is performed by default.")
     @ApiResponses(value = {
@@ -208,7 +223,9 @@ public interface ITypingRestResource {
             description = "Found",
             content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PIDRecord.class)),
-                @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class))
+                @Content(mediaType = SimplePidRecord.CONTENT_TYPE, schema = @Schema(implementation = SimplePidRecord.class)),
+                @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PIDRecord.class)),
+                @Content(mediaType = SimplePidRecord.CONTENT_TYPE_CBOR, schema = @Schema(implementation = SimplePidRecord.class))
             }
         ),
         @ApiResponse(responseCode = "400", description = "Validation failed. See body for details.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
@@ -287,6 +304,9 @@ public interface ITypingRestResource {
      * @param modifiedBefore defines the latest date for the modification timestamp.
      * @param pageable       defines page size and page to navigate through large
      *                       lists.
+     * @param continuation   if given, keyset pagination is used instead of page
+     *                       numbers. Empty to get the first page, otherwise the
+     *                       token of the previous response.
      * @return the PIDs matching all given contraints.
      */
     @Operation(
@@ -328,6 +348,74 @@ public interface ITypingRestResource {
             @Parameter(hidden = true)
             @PageableDefault(sort = {"modified"}, direction = Sort.Direction.ASC)
             Pageable pageable,
+
+            @Parameter(name = "continuation", description = "Enables keyset pagination, which stays fast for deep pages. "
+                + "Give an empty value for the first page. If there are more results, the response contains the token "
+                + "for the next page in the header `" + CONTINUATION_HEADER + "`. The page number is ignored "
+                + "and no Content-Range header is returned. Keep the sorting constant while paginating.", required = false)
+            @RequestParam(name = "continuation", required = false)
+            String continuation,
+            
+            WebRequest request,
+            
+            HttpServletResponse response,
+            
+            UriComponentsBuilder uriBuilder
+    ) throws IOException;
+
+    /**
+     * Like findAll, but streams all matching PIDs as NDJSON or CSV instead of
+     * returning a single page. Intended for full exports of large stores.
+     * 
+     * @param createdAfter   defines the earliest date for the creation timestamp.
+     * @param createdBefore  defines the latest date for the creation timestamp.
+     * @param modifiedAfter  defines the earliest date for the modification
+     *                       timestamp.
+     * @param modifiedBefore defines the latest date for the modification timestamp.
+     * @param resumeAfter    the last PID received in an interrupted export, to
+     *                       continue with the following PIDs.
+     * @return a response body which writes the PIDs ordered by PID.
+     */
+    @Operation(
+        summary = "Streams all known PIDs as NDJSON or CSV.",
+        description = "Writes all known PIDs matching the filtering criteria, ordered by PID, "
+            + "without pagination. Choose the format using the Accept header "
+            + "(`" + KnownPidExport.NDJSON + "` or `" + KnownPidExport.CSV + "`). If an export "
+            + "is interrupted, it can be resumed by giving the last received PID as `resume_after`.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "If the request was valid. May return an empty stream.",
+                content = {
+                    @Content(mediaType = KnownPidExport.NDJSON, schema = @Schema(implementation = KnownPid.class)),
+                    @Content(mediaType = KnownPidExport.CSV)
+                }
+            ),
+            @ApiResponse(responseCode = "500", description = "Server error. See body for details.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+        }
+    )
+    @GetMapping(path = "known-pid", produces = {KnownPidExport.NDJSON, KnownPidExport.CSV})
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @Parameter(name = "created_after", description = "The UTC time of the earliest creation timestamp of a returned PID.", required = false)
+            @RequestParam(name = "created_after", required = false)
+            Instant createdAfter,
+
+            @Parameter(name = "created_before", description = "The UTC time of the latest creation timestamp of a returned PID.", required = false)
+            @RequestParam(name = "created_before", required = false)
+            Instant createdBefore,
+
+            @Parameter(name = "modified_after", description = "The UTC time of the earliest modification timestamp of a returned PID.", required = false)
+            @RequestParam(name = "modified_after", required = false)
+            Instant modifiedAfter,
+            
+            @Parameter(name = "modified_before", description = "The UTC time of the latest modification timestamp of a returned PID.", required = false)
+            @RequestParam(name = "modified_before", required = false)
+            Instant modifiedBefore,
+
+            @Parameter(name = "resume_after", description = "The last PID received in an interrupted export. "
+                + "The export will continue with the following PID.", required = false)
+            @RequestParam(name = "resume_after", required = false)
+            String resumeAfter,
             
             WebRequest request,
             
@@ -336,6 +424,126 @@ public interface ITypingRestResource {
             UriComponentsBuilder uriBuilder
     ) throws IOException;
 
+    /**
+     * Returns the amount of created and modified known PIDs per time bucket.
+     * 
+     * @param bucket the size of the time buckets.
+     * @param from   the earliest timestamp to consider.
+     * @param to     the latest timestamp to consider.
+     * @return the non-empty buckets, ordered by time.
+     */
+    @Operation(
+        summary = "Returns statistics about known PIDs.",
+        description = "Counts the known PIDs created and (last) modified per hour, day or month. "
+            + "Buckets without any PIDs are omitted. The timestamps are in UTC.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "If the request was valid. May return an empty list.",
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = KnownPidStatistics.class)))
+            ),
+            @ApiResponse(responseCode = "400", description = "If the bucket size is unknown.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+            @ApiResponse(responseCode = "500", description = "Server error. See body for details.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+        }
+    )
+    @GetMapping(path = "statistics/known-pid", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<KnownPidStatistics>> knownPidStatistics(
+            @Parameter(name = "bucket", description = "The size of the time buckets: HOUR, DAY or MONTH.", required = false)
+            @RequestParam(name = "bucket", required = false, defaultValue = "DAY")
+            TimeBucket bucket,
+
+            @Parameter(name = "from", description = "The UTC time of the earliest timestamp to consider.", required = false)
+            @RequestParam(name = "from", required = false)
+            Instant from,
+
+            @Parameter(name = "to", description = "The UTC time of the latest timestamp to consider.", required = false)
+            @RequestParam(name = "to", required = false)
+            Instant to,
+
+            WebRequest request,
+
+            HttpServletResponse response,
+
+            UriComponentsBuilder uriBuilder
+    ) throws IOException;
+
+    /**
+     * Searches the records indexed in Elasticsearch.
+     * 
+     * @param attributes     restrictions of the form "key=value". A record
+     *                       matches if it contains the value for the key.
+     * @param query          words which have to occur in the attribute values.
+     * @param createdAfter   defines the earliest date for the creation timestamp.
+     * @param createdBefore  defines the latest date for the creation timestamp.
+     * @param modifiedAfter  defines the earliest date for the modification
+     *                       timestamp.
+     * @param modifiedBefore defines the latest date for the modification timestamp.
+     * @param size           the maximum amount of records to return.
+     * @param continuation   the token of the previous page, if any.
+     * @return the matching records, ordered by PID.
+     */
+    @Operation(
+        summary = "Searches the indexed PID records.",
+        description = "Searches the records indexed in Elasticsearch by exact attribute values, "
+            + "full text on the attribute values, and creation or modification date. All given "
+            + "criteria have to match. Results are ordered by PID. If there are more results, "
+            + "the response contains the token for the next page in the header `"
+            + CONTINUATION_HEADER + "`. Requires the search to be enabled (`repo.search.enabled`). "
+            + "Records become searchable shortly after they were created or modified.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "If the request was valid. May return an empty list.",
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = PidRecordElasticWrapper.class)))
+            ),
+            @ApiResponse(responseCode = "400", description = "If an attribute restriction or the continuation token is malformed.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+            @ApiResponse(responseCode = "501", description = "If the search is not enabled.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+            @ApiResponse(responseCode = "500", description = "Server error. See body for details.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+        }
+    )
+    @GetMapping(path = "search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PidRecordElasticWrapper>> search(
+            @Parameter(name = "attribute", description = "Restricts the results to records containing the given "
+                + "attribute value, given as `key=value`. Can be repeated.", required = false)
+            @RequestParam(name = "attribute", required = false)
+            List<String> attributes,
+
+            @Parameter(name = "query", description = "Words which have to occur in the attribute values of a record.", required = false)
+            @RequestParam(name = "query", required = false)
+            String query,
+
+            @Parameter(name = "created_after", description = "The UTC time of the earliest creation timestamp of a returned record.", required = false)
+            @RequestParam(name = "created_after", required = false)
+            Instant createdAfter,
+
+            @Parameter(name = "created_before", description = "The UTC time of the latest creation timestamp of a returned record.", required = false)
+            @RequestParam(name = "created_before", required = false)
+            Instant createdBefore,
+
+            @Parameter(name = "modified_after", description = "The UTC time of the earliest modification timestamp of a returned record.", required = false)
+            @RequestParam(name = "modified_after", required = false)
+            Instant modifiedAfter,
+
+            @Parameter(name = "modified_before", description = "The UTC time of the latest modification timestamp of a returned record.", required = false)
+            @RequestParam(name = "modified_before", required = false)
+            Instant modifiedBefore,
+
+            @Parameter(name = "size", description = "The maximum amount of records to return (at most 1000).", required = false)
+            @RequestParam(name = "size", required = false, defaultValue = "20")
+            int size,
+
+            @Parameter(name = "continuation", description = "The token from the `" + CONTINUATION_HEADER + "` header "
+                + "of the previous page. Keep all other parameters constant while paginating.", required = false)
+            @RequestParam(name = "continuation", required = false)
+            String continuation,
+
+            WebRequest request,
+
+            HttpServletResponse response,
+
+            UriComponentsBuilder uriBuilder
+    ) throws IOException;
+
     /**
      * Like findAll, but the return value is formatted for the tabulator
      * javascript library.
@@ -0,0 +1,153 @@
+package edu.kit.datamanager.pit.web;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+
+/**
+ * Writes all known PIDs matching a filter directly to a response, without
+ * collecting them in memory first.
+ *
+ * The PIDs are read in chunks, ordered by PID, using keyset pagination. Each
+ * chunk is a short query of its own, so no database connection is held while
+ * the client is reading. As the order is fixed, an interrupted export can be
+ * resumed after the last PID the client received.
+ */
+public class KnownPidExport implements StreamingResponseBody {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final ObjectMapper MAPPER = Application.jsonObjectMapper()
+            .copy()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final Sort ORDER = Sort.by("pid");
+
+    private final KnownPidsDao dao;
+    private final Specification<KnownPid> filter;
+    private final String resumeAfter;
+    private final boolean csv;
+    private final int chunkSize;
+
+    /**
+     * @param dao         the known PIDs to export.
+     * @param filter      restricts the exported PIDs.
+     * @param resumeAfter the last PID of a previous, interrupted export, or null
+     *                    to start at the beginning.
+     * @param mediaType   either {@link #NDJSON} or {@link #CSV}.
+     * @param chunkSize   amount of PIDs to read with each query.
+     */
+    public KnownPidExport(
+        KnownPidsDao dao,
+        Specification<KnownPid> filter,
+        String resumeAfter,
+        String mediaType,
+        int chunkSize
+    ) {
+        this.dao = dao;
+        this.filter = filter;
+        this.resumeAfter = resumeAfter;
+        this.csv = CSV.equals(mediaType);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Chooses the export format from an Accept header, respecting quality values
+     * and wildcards. For each format, the most specific accepted media type
+     * including it determines its quality. On equal quality, NDJSON is preferred.
+     *
+     * @param accept the value of the Accept header, may be null.
+     * @return either {@link #NDJSON} or {@link #CSV}.
+     */
+    public static String negotiate(String accept) {
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        if (accepted.isEmpty()) {
+            return NDJSON;
+        }
+        double ndjson = quality(accepted, MediaType.parseMediaType(NDJSON));
+        double csv = quality(accepted, MediaType.parseMediaType(CSV));
+        return csv > ndjson ? CSV : NDJSON;
+    }
+
+    private static double quality(List<MediaType> accepted, MediaType format) {
+        double quality = 0;
+        int bestSpecificity = -1;
+        for (MediaType type : accepted) {
+            if (!type.includes(format)) {
+                continue;
+            }
+            int specificity = type.isWildcardType() ? 0 : type.isWildcardSubtype() ? 1 : 2;
+            if (specificity > bestSpecificity) {
+                bestSpecificity = specificity;
+                quality = type.getQualityValue();
+            }
+        }
+        return quality;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write("pid,created,modified\n");
+        }
+        ScrollPosition position = resumeAfter == null || resumeAfter.isBlank()
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(Map.of("pid", resumeAfter));
+        while (true) {
+            final ScrollPosition current = position;
+            Window<KnownPid> window = this.dao.findBy(filter, query -> query
+                    .sortBy(ORDER)
+                    .limit(chunkSize)
+                    .scroll(current));
+            for (KnownPid known : window) {
+                write(writer, known);
+            }
+            // hand the chunk to the client before querying the next one
+            writer.flush();
+            if (window.isEmpty() || !window.hasNext()) {
+                break;
+            }
+            position = window.positionAt(window.size() - 1);
+        }
+    }
+
+    private void write(Writer writer, KnownPid known) throws IOException {
+        if (csv) {
+            writer.write(csvField(known.getPid()));
+            writer.write(',');
+            writer.write(String.valueOf(known.getCreated()));
+            writer.write(',');
+            writer.write(String.valueOf(known.getModified()));
+        } else {
+            MAPPER.writeValue(writer, known);
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,12 +1,8 @@
 package edu.kit.datamanager.pit.web.converter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +12,14 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.kit.datamanager.pit.Application;
 import edu.kit.datamanager.pit.domain.PIDRecord;
@@ -42,15 +46,51 @@ import edu.kit.datamanager.pit.domain.SimplePidRecord;
  * For accepting formats, it is the same. With the accept header, a client may
  * control which format it would like to receive. If it prefers to receive the
  * simple format and sets the header accordingly, instead of directly
- * serializing the PIDRecord, this class will be used. It first converts the
- * record into the simple class representation before serializing into JSON.
+ * serializing the PIDRecord, this class will be used.
+ * 
+ * Both directions are streamed token by token between the HTTP body and the
+ * PIDRecord, without building a SimplePidRecord, a String or a byte array in
+ * between. The resulting JSON is the same as serializing a SimplePidRecord.
+ * 
+ * The same structure is available in binary formats supported by Jackson (e.g.
+ * CBOR), using a converter instance with the respective mapper and media type.
  */
 public class SimplePidRecordConverter implements HttpMessageConverter<PIDRecord> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SimplePidRecordConverter.class);
 
+    private static final String FIELD_PID = "pid";
+    private static final String FIELD_RECORD = "record";
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_VALUE = "value";
+
+    private final ObjectMapper mapper;
+    private final MediaType mediaType;
+
+    /**
+     * Creates a converter for the JSON representation.
+     */
+    public SimplePidRecordConverter() {
+        this(Application.jsonObjectMapper(), MediaType.valueOf(SimplePidRecord.CONTENT_TYPE));
+    }
+
+    /**
+     * @param mapper    the mapper defining the format, e.g. JSON or CBOR.
+     * @param mediaType the simple media type with the suffix of the format, e.g.
+     *                  {@link SimplePidRecord#CONTENT_TYPE_CBOR}.
+     */
+    public SimplePidRecordConverter(ObjectMapper mapper, MediaType mediaType) {
+        this.mapper = mapper;
+        this.mediaType = mediaType;
+    }
+
     private boolean isValidMediaType(MediaType arg1) {
-        return arg1.toString().contains(SimplePidRecord.CONTENT_TYPE_PURE);
+        if (!arg1.toString().contains(SimplePidRecord.CONTENT_TYPE_PURE)) {
+            return false;
+        }
+        // without suffix, JSON is assumed
+        String suffix = Objects.requireNonNullElse(arg1.getSubtypeSuffix(), "json");
+        return suffix.equals(mediaType.getSubtypeSuffix());
     }
 
     @Override
@@ -70,18 +110,65 @@ public class SimplePidRecordConverter implements HttpMessageConverter<PIDRecord>
 
     @Override
     public List<MediaType> getSupportedMediaTypes() {
-        return Arrays.asList(
-                MediaType.valueOf(SimplePidRecord.CONTENT_TYPE)
-        );
+        return List.of(mediaType);
     }
 
+    /**
+     * Reads the simple format. Like before, the "pid" field is ignored, as the
+     * PID is always given by the request path (or generated).
+     */
     @Override
     public PIDRecord read(Class<? extends PIDRecord> arg0, HttpInputMessage arg1)
             throws IOException, HttpMessageNotReadableException {
         LOGGER.trace("Read simple message from client and convert to PIDRecord.");
-        try (InputStreamReader reader = new InputStreamReader(arg1.getBody(), StandardCharsets.UTF_8)) {
-            String data = new BufferedReader(reader).lines().collect(Collectors.joining("\n"));
-            return new PIDRecord(Application.jsonObjectMapper().readValue(data, SimplePidRecord.class));
+        try (JsonParser parser = mapper.createParser(arg1.getBody())) {
+            PIDRecord result = new PIDRecord();
+            expect(parser.nextToken() == JsonToken.START_OBJECT, "Expected a JSON object.", arg1);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (FIELD_RECORD.equals(field) && value != JsonToken.VALUE_NULL) {
+                    readPairs(parser, result, arg1);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return result;
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Could not parse record: " + e.getOriginalMessage(), e, arg1);
+        }
+    }
+
+    private static void readPairs(JsonParser parser, PIDRecord result, HttpInputMessage message) throws IOException {
+        expect(parser.currentToken() == JsonToken.START_ARRAY, "Expected \"record\" to be an array.", message);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String key = null;
+            String value = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (FIELD_KEY.equals(field)) {
+                    key = readText(parser, token, message);
+                } else if (FIELD_VALUE.equals(field)) {
+                    value = readText(parser, token, message);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            expect(key != null && !key.isEmpty(), "Every pair in \"record\" requires a key.", message);
+            result.addEntry(key, "", value);
+        }
+        expect(parser.currentToken() == JsonToken.END_ARRAY, "Expected \"record\" to contain objects only.", message);
+    }
+
+    private static String readText(JsonParser parser, JsonToken token, HttpInputMessage message) throws IOException {
+        expect(token.isScalarValue(), "Expected keys and values to be strings.", message);
+        return token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    private static void expect(boolean condition, String problem, HttpInputMessage message) {
+        if (!condition) {
+            throw new HttpMessageNotReadableException(problem, message);
         }
     }
 
@@ -89,8 +176,30 @@ public class SimplePidRecordConverter implements HttpMessageConverter<PIDRecord>
     public void write(PIDRecord arg0, MediaType arg1, HttpOutputMessage arg2)
             throws IOException, HttpMessageNotWritableException {
         LOGGER.trace("Write PIDRecord to simple format for client.");
-        SimplePidRecord sim = new SimplePidRecord(arg0);
-        byte[] simSerialized = Application.jsonObjectMapper().writeValueAsBytes(sim);
-        arg2.getBody().write(simSerialized);
+        try (JsonGenerator generator = mapper.createGenerator(
+                StreamUtils.nonClosing(arg2.getBody()), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            // empty fields are omitted, like the shared mapper does (NON_EMPTY)
+            writeIfNotEmpty(generator, FIELD_PID, arg0.getPid());
+            if (!arg0.getPropertyIdentifiers().isEmpty()) {
+                generator.writeArrayFieldStart(FIELD_RECORD);
+                for (String key : arg0.getPropertyIdentifiers()) {
+                    for (String value : arg0.getPropertyValues(key)) {
+                        generator.writeStartObject();
+                        writeIfNotEmpty(generator, FIELD_KEY, key);
+                        writeIfNotEmpty(generator, FIELD_VALUE, value);
+                        generator.writeEndObject();
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeIfNotEmpty(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            generator.writeStringField(field, value);
+        }
     }
 }
@@ -1,31 +1,40 @@
 package edu.kit.datamanager.pit.web.impl;
 
+import edu.kit.datamanager.exceptions.BadArgumentException;
 import edu.kit.datamanager.exceptions.CustomInternalServerError;
 import java.io.IOException;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 import edu.kit.datamanager.pit.common.PidAlreadyExistsException;
 import edu.kit.datamanager.pit.common.PidNotFoundException;
-import edu.kit.datamanager.pit.configuration.ApplicationProperties;
 import edu.kit.datamanager.pit.configuration.PidGenerationProperties;
 import edu.kit.datamanager.pit.common.RecordValidationException;
+import edu.kit.datamanager.pit.common.SearchNotEnabledException;
 import edu.kit.datamanager.pit.domain.PIDRecord;
-import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticRepository;
 import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordSearch;
+import edu.kit.datamanager.pit.outbox.RecordSideEffects;
 import edu.kit.datamanager.pit.pidgeneration.PidSuffix;
 import edu.kit.datamanager.pit.pidgeneration.PidSuffixGenerator;
 import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidSpecifications;
+import edu.kit.datamanager.pit.pidlog.KnownPidStatistics;
 import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.pidlog.TimeBucket;
+import edu.kit.datamanager.pit.pidsystem.AsyncIdentifierSystem;
+import edu.kit.datamanager.pit.pitservice.IAsyncTypingService;
 import edu.kit.datamanager.pit.pitservice.ITypingService;
+import edu.kit.datamanager.pit.web.ContinuationToken;
 import edu.kit.datamanager.pit.web.ITypingRestResource;
+import edu.kit.datamanager.pit.web.KnownPidExport;
 import edu.kit.datamanager.pit.web.TabulatorPaginationFormat;
-import edu.kit.datamanager.service.IMessagingService;
-import edu.kit.datamanager.entities.messaging.PidRecordMessage;
-import edu.kit.datamanager.util.AuthenticationHelper;
 import edu.kit.datamanager.util.ControllerUtils;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -36,16 +45,23 @@ import org.apache.http.client.cache.HeaderConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @RestController
@@ -55,20 +71,17 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(TypingRESTResourceImpl.class);
 
-    @Autowired
-    private ApplicationProperties applicationProps;
-
     @Autowired
     protected ITypingService typingService;
 
     @Autowired
-    private IMessagingService messagingService;
+    protected IAsyncTypingService asyncTypingService;
 
     @Autowired
     private KnownPidsDao localPidStorage;
 
     @Autowired
-    private Optional<PidRecordElasticRepository> elastic;
+    private RecordSideEffects sideEffects;
 
     @Autowired
     private PidSuffixGenerator suffixGenerator;
@@ -76,6 +89,14 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
     @Autowired
     private PidGenerationProperties pidGenerationProperties;
 
+    @Autowired
+    private Optional<PidRecordSearch> recordSearch;
+
+    @Value("${pit.storage.export.chunk-size:1000}")
+    private int exportChunkSize;
+
+    private static final int MAX_SEARCH_SIZE = 1000;
+
     public TypingRESTResourceImpl() {
         super();
     }
@@ -93,34 +114,23 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
 
         if (dryrun) {
             pidRecord.setPid("dryrun");
-        } else {
-            setPid(pidRecord);
-        }
-
-        this.typingService.validate(pidRecord);
-
-        if (dryrun) {
+            this.typingService.validate(pidRecord);
             // dryrun only does validation. Stop now and return as we would later on.
             return ResponseEntity.status(HttpStatus.OK).eTag(quotedEtag(pidRecord)).body(pidRecord);
         }
 
+        // Validation (mostly loading types) does not depend on the PID,
+        // so it runs while the PID is chosen (queries to the PID system).
+        CompletableFuture<Void> validation = this.asyncTypingService.validate(pidRecord);
+        String suffix = choosePid(pidRecord);
+        AsyncIdentifierSystem.await(validation);
+        pidRecord.setPid(suffix);
+
         String pid = this.typingService.registerPID(pidRecord);
         pidRecord.setPid(pid);
 
-        if (applicationProps.getStorageStrategy().storesModified()) {
-            storeLocally(pid, true);
-        }
-        PidRecordMessage message = PidRecordMessage.creation(
-                pid,
-                "", // TODO parameter is depricated and will be removed soon.
-                AuthenticationHelper.getPrincipal(),
-                ControllerUtils.getLocalHostname());
-        try {
-            this.messagingService.send(message);
-        } catch (Exception e) {
-            LOG.error("Could not notify messaging service about the following message: {}", message);
-        }
-        this.saveToElastic(pidRecord);
+        // store pid locally, index it and send message
+        this.sideEffects.created(pidRecord);
         return ResponseEntity.status(HttpStatus.CREATED).eTag(quotedEtag(pidRecord)).body(pidRecord);
     }
 
@@ -128,7 +138,12 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
         return pidRecord.getPid() != null && !pidRecord.getPid().isBlank();
     }
 
-    private void setPid(PIDRecord pidRecord) throws IOException {
+    /**
+     * Chooses the PID for a new record, without modifying the record.
+     *
+     * @return the PID given in the record (if allowed) or a generated suffix.
+     */
+    private String choosePid(PIDRecord pidRecord) throws IOException {
         boolean hasCustomPid = hasPid(pidRecord);
         boolean allowsCustomPids = pidGenerationProperties.isCustomClientPidsEnabled();
 
@@ -142,6 +157,7 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
             if (isRegisteredPid) {
                 throw new PidAlreadyExistsException(pidRecord.getPid());
             }
+            return maybeSuffix;
         } else {
             // In all other (usual) cases, we have to generate a PID.
             // We store only the suffix in the pid field.
@@ -154,7 +170,7 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
                     .stream()  // back to normal java streams
                     .findFirst();  // as the stream is infinite, we should always find a prefix.
             PidSuffix suffix = maybeSuffix.orElseThrow(() -> new IOException("Could not generate PID suffix."));
-            pidRecord.setPid(suffix.get());
+            return suffix.get();
         }
     }
 
@@ -176,14 +192,17 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
                 "Optional PID in record is given (%s), but it was not the same as the PID in the URL (%s). Ignore request, assuming this was not intended.".formatted(pidInternal, pid));
         }
         
-        PIDRecord existingRecord = this.typingService.queryAllProperties(pid);
+        // Resolving the existing record and validating the new one do not depend
+        // on each other, so they run concurrently. Errors are reported in the
+        // same order as before: not found, invalid record, etag mismatch.
+        pidRecord.setPid(pid);
+        CompletableFuture<PIDRecord> existing = this.asyncTypingService.queryAllProperties(pid);
+        CompletableFuture<Void> validation = this.asyncTypingService.validate(pidRecord);
+        PIDRecord existingRecord = AsyncIdentifierSystem.await(existing);
         if (existingRecord == null) {
             throw new PidNotFoundException(pid);
         }
-
-        // record validation
-        pidRecord.setPid(pid);
-        this.typingService.validate(pidRecord);
+        AsyncIdentifierSystem.await(validation);
 
         // throws exception (HTTP 412) if check fails.
         ControllerUtils.checkEtag(request, existingRecord);
@@ -195,44 +214,14 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
 
         // update and send message
         if (this.typingService.updatePID(pidRecord)) {
-            // store pid locally
-            if (applicationProps.getStorageStrategy().storesModified()) {
-                storeLocally(pidRecord.getPid(), true);
-            }
-            // distribute pid to other services
-            PidRecordMessage message = PidRecordMessage.update(
-                    pid,
-                    "", // TODO parameter is depricated and will be removed soon.
-                    AuthenticationHelper.getPrincipal(),
-                    ControllerUtils.getLocalHostname());
-            this.messagingService.send(message);
-            this.saveToElastic(pidRecord);
+            // store pid locally, index it and distribute it to other services
+            this.sideEffects.updated(pidRecord);
             return ResponseEntity.ok().eTag(quotedEtag(pidRecord)).body(pidRecord);
         } else {
             throw new PidNotFoundException(pid);
         }
     }
 
-    /**
-     * Stores the PID in a local database.
-     * 
-     * @param pid    the PID
-     * @param update if true, updates the modified timestamp if it already exists.
-     *               If it does not exist, it will be created with both timestamps
-     *               (created and modified) being the same.
-     */
-    private void storeLocally(String pid, boolean update) {
-        Instant now = Instant.now();
-        Optional<KnownPid> oldPid = localPidStorage.findByPid(pid);
-        if (oldPid.isEmpty()) {
-            localPidStorage.saveAndFlush(new KnownPid(pid, now, now));
-        } else if (update) {
-            KnownPid newPid = oldPid.get();
-            newPid.setModified(now);
-            localPidStorage.saveAndFlush(newPid);
-        }
-    }
-
     private String getContentPathFromRequest(String lastPathElement, WebRequest request) {
         String requestedUri = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
                 RequestAttributes.SCOPE_REQUEST);
@@ -252,22 +241,18 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
     ) throws IOException {
         String pid = getContentPathFromRequest("pid", request);
         PIDRecord pidRecord = this.typingService.queryAllProperties(pid);
-        if (applicationProps.getStorageStrategy().storesResolved()) {
-            storeLocally(pid, false);
-        }
-        this.saveToElastic(pidRecord);
-        if (validation) {
-            typingService.validate(pidRecord);
+        // the side effects need the request thread, validation runs meanwhile
+        CompletableFuture<Void> validated = validation
+                ? this.asyncTypingService.validate(pidRecord)
+                : CompletableFuture.completedFuture(null);
+        this.sideEffects.resolved(pidRecord);
+        AsyncIdentifierSystem.await(validated);
+        String etag = quotedEtag(pidRecord);
+        // Answers conditional requests (If-None-Match) without serializing the record.
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
-        return ResponseEntity.ok().eTag(quotedEtag(pidRecord)).body(pidRecord);
-    }
-
-    private void saveToElastic(PIDRecord rec) {
-        this.elastic.ifPresent(
-            database -> database.save(
-                new PidRecordElasticWrapper(rec, typingService.getOperations())
-            )
-        );
+        return ResponseEntity.ok().eTag(etag).body(pidRecord);
     }
 
     @Override
@@ -291,41 +276,33 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
         Instant modifiedBefore,
         Pageable pageable
     ) {
-        final boolean queriesCreated = createdAfter != null || createdBefore != null;
-        final boolean queriesModified = modifiedAfter != null || modifiedBefore != null;
-        if (queriesCreated && createdAfter == null) {
-            createdAfter = Instant.EPOCH;
-        }
-        if (queriesCreated && createdBefore == null) {
-            createdBefore = Instant.now().plus(1, ChronoUnit.DAYS);
-        }
-        if (queriesModified && modifiedAfter == null) {
-            modifiedAfter = Instant.EPOCH;
-        }
-        if (queriesModified && modifiedBefore == null) {
-            modifiedBefore = Instant.now().plus(1, ChronoUnit.DAYS);
-        }
+        Specification<KnownPid> filter = KnownPidSpecifications.within(
+            createdAfter, createdBefore, modifiedAfter, modifiedBefore);
+        return this.localPidStorage.findAll(filter, pageable);
+    }
 
-        Page<KnownPid> resultCreatedTimestamp = Page.empty();
-        Page<KnownPid> resultModifiedTimestamp = Page.empty();
-        if (queriesCreated) {
-            resultCreatedTimestamp = this.localPidStorage
-                .findDistinctPidsByCreatedBetween(createdAfter, createdBefore, pageable);
-        }
-        if (queriesModified) {
-            resultModifiedTimestamp = this.localPidStorage
-                .findDistinctPidsByModifiedBetween(modifiedAfter, modifiedBefore, pageable);
-        }
-        if (queriesCreated && queriesModified) {
-            final Page<KnownPid> tmp = resultModifiedTimestamp;
-            final List<KnownPid> intersection = resultCreatedTimestamp.filter((x) -> tmp.getContent().contains(x)).toList();
-            return new PageImpl<>(intersection);
-        } else if (queriesCreated) {
-            return resultCreatedTimestamp;
-        } else if (queriesModified) {
-            return resultModifiedTimestamp;
-        }
-        return new PageImpl<>(this.localPidStorage.findAll());
+    /**
+     * Like {@link #findAllPage(Instant, Instant, Instant, Instant, Pageable)}, but
+     * using keyset pagination. Does not count the total amount of results.
+     * 
+     * @param position where to continue.
+     * @return the window of results, starting after the given position.
+     */
+    public Window<KnownPid> findAllWindow(
+        Instant createdAfter,
+        Instant createdBefore,
+        Instant modifiedAfter,
+        Instant modifiedBefore,
+        Pageable pageable,
+        ScrollPosition position
+    ) {
+        Specification<KnownPid> filter = KnownPidSpecifications.within(
+            createdAfter, createdBefore, modifiedAfter, modifiedBefore);
+        // the PID is appended to the sort properties automatically to make the order unique.
+        return this.localPidStorage.findBy(filter, query -> query
+            .sortBy(pageable.getSort())
+            .limit(pageable.getPageSize())
+            .scroll(position));
     }
 
     @Override
@@ -335,10 +312,21 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
             Instant modifiedAfter,
             Instant modifiedBefore,
             Pageable pageable,
+            String continuation,
             WebRequest request,
             HttpServletResponse response,
             UriComponentsBuilder uriBuilder) throws IOException
     {
+        if (continuation != null) {
+            ScrollPosition position = ContinuationToken.decode(continuation);
+            Window<KnownPid> window = this.findAllWindow(
+                createdAfter, createdBefore, modifiedAfter, modifiedBefore, pageable, position);
+            if (window.hasNext() && !window.isEmpty()) {
+                KeysetScrollPosition next = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+                response.addHeader(CONTINUATION_HEADER, ContinuationToken.encode(next));
+            }
+            return ResponseEntity.ok().body(window.getContent());
+        }
         Page<KnownPid> page = this.findAllPage(createdAfter, createdBefore, modifiedAfter, modifiedBefore, pageable);
         response.addHeader(
             HeaderConstants.CONTENT_RANGE,
@@ -349,6 +337,86 @@ public class TypingRESTResourceImpl implements ITypingRestResource {
         return ResponseEntity.ok().body(page.getContent());
     }
 
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            Instant createdAfter,
+            Instant createdBefore,
+            Instant modifiedAfter,
+            Instant modifiedBefore,
+            String resumeAfter,
+            WebRequest request,
+            HttpServletResponse response,
+            UriComponentsBuilder uriBuilder) throws IOException
+    {
+        String mediaType = KnownPidExport.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        Specification<KnownPid> filter = KnownPidSpecifications.within(
+            createdAfter, createdBefore, modifiedAfter, modifiedBefore);
+        KnownPidExport export = new KnownPidExport(
+            this.localPidStorage, filter, resumeAfter, mediaType, this.exportChunkSize);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(mediaType))
+                .body(export);
+    }
+
+    @Override
+    public ResponseEntity<List<KnownPidStatistics>> knownPidStatistics(
+            TimeBucket bucket,
+            Instant from,
+            Instant to,
+            WebRequest request,
+            HttpServletResponse response,
+            UriComponentsBuilder uriBuilder) throws IOException
+    {
+        return ResponseEntity.ok().body(this.localPidStorage.countPerBucket(bucket, from, to));
+    }
+
+    @Override
+    public ResponseEntity<List<PidRecordElasticWrapper>> search(
+            List<String> attributes,
+            String query,
+            Instant createdAfter,
+            Instant createdBefore,
+            Instant modifiedAfter,
+            Instant modifiedBefore,
+            int size,
+            String continuation,
+            WebRequest request,
+            HttpServletResponse response,
+            UriComponentsBuilder uriBuilder) throws IOException
+    {
+        PidRecordSearch search = this.recordSearch.orElseThrow(SearchNotEnabledException::new);
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new BadArgumentException("The size has to be between 1 and " + MAX_SEARCH_SIZE + ".");
+        }
+        PidRecordSearch.Criteria criteria = new PidRecordSearch.Criteria(
+            parseAttributes(attributes), query, createdAfter, createdBefore, modifiedAfter, modifiedBefore);
+        PidRecordSearch.Result result = search.search(
+            criteria, size, ContinuationToken.decodeSearchAfter(continuation));
+        result.next().ifPresent(
+            next -> response.addHeader(CONTINUATION_HEADER, ContinuationToken.encodeSearchAfter(next)));
+        return ResponseEntity.ok().body(result.hits());
+    }
+
+    /**
+     * @param attributes restrictions of the form "key=value".
+     * @return the values per key.
+     */
+    private static Map<String, List<String>> parseAttributes(List<String> attributes) {
+        Map<String, List<String>> parsed = new LinkedHashMap<>();
+        if (attributes == null) {
+            return parsed;
+        }
+        for (String attribute : attributes) {
+            int separator = attribute.indexOf('=');
+            if (separator <= 0) {
+                throw new BadArgumentException("Attribute restriction must have the form key=value: " + attribute);
+            }
+            parsed.computeIfAbsent(attribute.substring(0, separator), key -> new ArrayList<>())
+                .add(attribute.substring(separator + 1));
+        }
+        return parsed;
+    }
+
     @Override
     public ResponseEntity<TabulatorPaginationFormat<KnownPid>> findAllForTabular(
             Instant createdAfter,
@@ -0,0 +1,72 @@
+package edu.kit.datamanager.pit.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testAdvancesOnlyOverContiguousBatches() throws IOException {
+        Path file = dir.resolve("checkpoint");
+        Checkpoint checkpoint = Checkpoint.of(file.toString());
+        assertEquals(0, checkpoint.getStart());
+
+        checkpoint.completed(1, 10);
+        assertEquals(0, checkpoint.getProcessed());
+        assertFalse(Files.exists(file));
+
+        checkpoint.completed(0, 10);
+        assertEquals(20, checkpoint.getProcessed());
+        assertEquals("20", Files.readString(file));
+
+        Checkpoint resumed = Checkpoint.of(file.toString());
+        assertEquals(20, resumed.getStart());
+        resumed.completed(0, 5);
+        assertEquals(25, resumed.getProcessed());
+
+        resumed.clear();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testRemembersLastPid() throws IOException {
+        Path file = dir.resolve("checkpoint");
+        Checkpoint checkpoint = Checkpoint.of(file.toString());
+        assertTrue(checkpoint.getLastPid().isEmpty());
+
+        checkpoint.completed(1, 2, "prefix/4");
+        checkpoint.completed(0, 2, "prefix/2");
+        assertEquals("4\nprefix/4", Files.readString(file));
+
+        Checkpoint resumed = Checkpoint.of(file.toString());
+        assertEquals(4, resumed.getStart());
+        assertEquals("prefix/4", resumed.getLastPid().orElseThrow());
+    }
+
+    @Test
+    void testDisabled() throws IOException {
+        Checkpoint checkpoint = Checkpoint.of("");
+        checkpoint.completed(0, 3);
+        assertEquals(3, checkpoint.getProcessed());
+        checkpoint.clear();
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        Path file = dir.resolve("checkpoint");
+        Files.writeString(file, "not a number");
+        assertThrows(IOException.class, () -> Checkpoint.of(file.toString()));
+    }
+}
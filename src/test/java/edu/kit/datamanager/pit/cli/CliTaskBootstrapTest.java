@@ -6,8 +6,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -20,6 +23,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
 import edu.kit.datamanager.pit.common.InvalidConfigException;
+import edu.kit.datamanager.pit.configuration.CliProperties;
 import edu.kit.datamanager.pit.pidlog.KnownPid;
 import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
 
@@ -38,6 +42,11 @@ class CliTaskBootstrapTest {
     @Autowired
     KnownPidsDao knownPids;
 
+    @Autowired
+    CliProperties cliProps;
+
+    private static final List<String> BATCH_PIDS = List.of("batch/1", "batch/2", "batch/3", "batch/4", "batch/5");
+
     @Test
     void setup() {
         assertNotNull(context);
@@ -86,6 +95,58 @@ class CliTaskBootstrapTest {
         knownPids.deleteById(pid);
     }
 
+    @Test
+    void testBootstrapInParallelBatches() throws IOException {
+        int batchSize = cliProps.getBatchSize();
+        int workers = cliProps.getWorkers();
+        cliProps.setBatchSize(2);
+        cliProps.setWorkers(3);
+        try {
+            ICliTask task = new CliTaskBootstrap(context, BATCH_PIDS.stream());
+            assertFalse(task.process());
+        } finally {
+            cliProps.setBatchSize(batchSize);
+            cliProps.setWorkers(workers);
+        }
+        for (String pid : BATCH_PIDS) {
+            assertTrue(knownPids.findByPid(pid).isPresent());
+        }
+    }
+
+    @Test
+    void testResumesAfterLastPidOfCheckpoint() throws IOException {
+        String checkpointFile = cliProps.getCheckpointFile();
+        Path checkpoint = Files.writeString(Files.createTempFile("bootstrap", ".checkpoint"), "2\nbatch/2");
+        cliProps.setCheckpointFile(checkpoint.toString());
+        try {
+            // the order of the source does not depend on the order of the previous run
+            ICliTask task = new CliTaskBootstrap(context, BATCH_PIDS.stream().sorted());
+            assertFalse(task.process());
+            assertFalse(Files.exists(checkpoint));
+        } finally {
+            cliProps.setCheckpointFile(checkpointFile);
+            Files.deleteIfExists(checkpoint);
+        }
+        assertFalse(knownPids.existsById("batch/1"));
+        assertFalse(knownPids.existsById("batch/2"));
+        assertTrue(knownPids.existsById("batch/3"));
+        assertTrue(knownPids.existsById("batch/5"));
+    }
+
+    @Test
+    void testSourcesAreOrdered() {
+        List<KnownPid> stored = List.of("known/c", "known/a", "known/b").stream()
+            .map(pid -> new KnownPid(pid, Instant.EPOCH, Instant.EPOCH))
+            .toList();
+        knownPids.saveAll(stored);
+        try {
+            List<String> pids = PidSource.fromKnown(context).toList();
+            assertEquals(pids.stream().sorted().toList(), pids);
+        } finally {
+            knownPids.deleteAll(stored);
+        }
+    }
+
     @AfterEach
     void cleanup() {
         try {
@@ -94,5 +155,8 @@ class CliTaskBootstrapTest {
         } catch (Exception e) {
             // ignore, as they do not exist in every test
         }
+        BATCH_PIDS.stream()
+            .filter(pid -> knownPids.existsById(pid))
+            .forEach(knownPids::deleteById);
     }
 }
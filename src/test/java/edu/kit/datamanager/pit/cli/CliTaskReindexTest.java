@@ -0,0 +1,100 @@
+package edu.kit.datamanager.pit.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import edu.kit.datamanager.pit.common.InvalidConfigException;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.elasticsearch.IBulkIndexSink;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+@SpringBootTest
+@TestPropertySource(
+    locations = "/test/application-test.properties"
+)
+@ActiveProfiles("test")
+class CliTaskReindexTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    ITypingService typingService;
+
+    @Autowired
+    KnownPidsDao knownPids;
+
+    @Test
+    void testRequiresSearch() {
+        CliTaskReindex task = new CliTaskReindex(context, Stream.of("reindex/none"));
+        assertThrows(InvalidConfigException.class, task::process);
+    }
+
+    @Test
+    void testIndexBatchRetriesAndSkipsUnknown() {
+        for (String pid : new String[] {"reindex/1", "reindex/2"}) {
+            PIDRecord pidRecord = new PIDRecord();
+            pidRecord.setPid(pid);
+            pidRecord.addEntry("21.T11148/some-key", "value");
+            typingService.registerPidUnchecked(pidRecord);
+        }
+        List<List<String>> requests = new ArrayList<>();
+        // lets "reindex/2" fail on the first attempt only
+        IBulkIndexSink sink = documents -> {
+            List<String> pids = documents.stream().map(PidRecordElasticWrapper::getPid).toList();
+            requests.add(pids);
+            return requests.size() == 1 ? Set.of("reindex/2") : Set.of();
+        };
+
+        CliTaskReindex task = new CliTaskReindex(context, Stream.empty());
+        CliTaskReindex.BatchResult result = task.indexBatch(
+            sink, List.of("reindex/1", "reindex/2", "reindex/unknown"), Optional.empty());
+
+        assertEquals(new CliTaskReindex.BatchResult(2, 0), result);
+        assertEquals(List.of(List.of("reindex/1", "reindex/2"), List.of("reindex/2")), requests);
+    }
+
+    @Test
+    void testReplayChangesSinceStart() {
+        Instant started = Instant.now();
+        for (String pid : new String[] {"reindex/changed", "reindex/unchanged"}) {
+            PIDRecord pidRecord = new PIDRecord();
+            pidRecord.setPid(pid);
+            pidRecord.addEntry("21.T11148/some-key", "value");
+            typingService.registerPidUnchecked(pidRecord);
+        }
+        Instant longAgo = started.minus(Duration.ofDays(1));
+        knownPids.save(new KnownPid("reindex/unchanged", longAgo, longAgo));
+        knownPids.save(new KnownPid("reindex/changed", longAgo, Instant.now()));
+
+        List<String> indexed = new ArrayList<>();
+        IBulkIndexSink sink = documents -> {
+            documents.stream().map(PidRecordElasticWrapper::getPid).forEach(indexed::add);
+            return Set.of();
+        };
+        CliTaskReindex task = new CliTaskReindex(context, Stream.empty());
+        assertEquals(0, task.replayChanges(sink, started, Optional.empty()));
+        assertTrue(indexed.contains("reindex/changed"), indexed.toString());
+        assertFalse(indexed.contains("reindex/unchanged"), indexed.toString());
+    }
+}
@@ -0,0 +1,138 @@
+package edu.kit.datamanager.pit.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import edu.kit.datamanager.pit.common.InvalidConfigException;
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+@SpringBootTest
+@TestPropertySource(
+    locations = "/test/application-test.properties"
+)
+@ActiveProfiles("test")
+class CliTaskSnapshotTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    ITypingService typingService;
+
+    @Autowired
+    CliProperties cliProps;
+
+    @TempDir
+    Path dir;
+
+    private static final List<String> PIDS = List.of("snapshot/1", "snapshot/2", "snapshot/3", "snapshot/unknown");
+
+    private int partSize;
+
+    @BeforeEach
+    void setup() {
+        this.partSize = cliProps.getSnapshotPartSize();
+        cliProps.setSnapshotPartSize(2);
+        cliProps.setOutput(dir.toString());
+        for (String pid : PIDS.subList(0, 3)) {
+            typingService.registerPidUnchecked(someRecord(pid, "original"));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        cliProps.setSnapshotPartSize(partSize);
+        cliProps.setOutput("");
+    }
+
+    private static PIDRecord someRecord(String pid, String value) {
+        PIDRecord pidRecord = new PIDRecord();
+        pidRecord.setPid(pid);
+        pidRecord.addEntry("21.T11148/some-key", value);
+        return pidRecord;
+    }
+
+    @Test
+    void testSnapshotAndRestore() throws IOException, InvalidConfigException {
+        assertTrue(new CliTaskSnapshot(context, PIDS.stream()).process());
+
+        SnapshotManifest manifest = SnapshotManifest.readOrCreate(dir);
+        assertTrue(manifest.isComplete());
+        assertEquals(2, manifest.getParts().size());
+        assertEquals(4, manifest.countPids());
+        // the unknown PID can not be resolved
+        assertEquals(3, manifest.countRecords());
+
+        // running it again does not change a complete snapshot
+        assertTrue(new CliTaskSnapshot(context, PIDS.stream()).process());
+        assertEquals(2, SnapshotManifest.readOrCreate(dir).getParts().size());
+
+        typingService.updatePID(someRecord("snapshot/2", "modified"));
+        assertTrue(new CliTaskRestore(context, dir).process());
+        assertEquals(someRecord("snapshot/2", "original"), typingService.queryAllProperties("snapshot/2"));
+    }
+
+    @Test
+    void testContinueSnapshot() throws IOException {
+        assertTrue(new CliTaskSnapshot(context, PIDS.stream().limit(2)).process());
+        SnapshotManifest manifest = SnapshotManifest.readOrCreate(dir);
+        manifest.setComplete(false);
+        manifest.write(dir);
+
+        // continues after the last PID of the manifest, not after the amount of PIDs
+        Stream<String> source = Stream.concat(Stream.of("snapshot/0"), PIDS.stream());
+        assertTrue(new CliTaskSnapshot(context, source).process());
+        manifest = SnapshotManifest.readOrCreate(dir);
+        assertTrue(manifest.isComplete());
+        assertEquals(2, manifest.getParts().size());
+        assertEquals(3, manifest.countRecords());
+        assertEquals("snapshot/unknown", manifest.lastPid().orElseThrow());
+    }
+
+    @Test
+    void testRestoreIgnoresCheckpointOfOtherTasks() throws IOException, InvalidConfigException {
+        assertTrue(new CliTaskSnapshot(context, PIDS.stream()).process());
+        typingService.updatePID(someRecord("snapshot/1", "modified"));
+        // left behind by an interrupted bootstrap
+        Path foreignCheckpoint = Files.writeString(Files.createTempFile("bootstrap", ".checkpoint"), "100");
+        cliProps.setCheckpointFile(foreignCheckpoint.toString());
+        try {
+            assertTrue(new CliTaskRestore(context, dir).process());
+        } finally {
+            cliProps.setCheckpointFile("");
+            Files.deleteIfExists(foreignCheckpoint);
+        }
+        assertEquals(someRecord("snapshot/1", "original"), typingService.queryAllProperties("snapshot/1"));
+        // removed after a successful restore
+        assertFalse(Files.exists(dir.resolve(CliTaskRestore.CHECKPOINT_FILENAME)));
+    }
+
+    @Test
+    void testRestoreRejectsModifiedPart() throws IOException {
+        assertTrue(new CliTaskSnapshot(context, PIDS.stream()).process());
+        Path part = dir.resolve(SnapshotManifest.readOrCreate(dir).getParts().get(0).file());
+        Files.write(part, new byte[] {1, 2, 3});
+        CliTaskRestore restore = new CliTaskRestore(context, dir);
+        assertThrows(IOException.class, restore::process);
+    }
+}
@@ -0,0 +1,74 @@
+package edu.kit.datamanager.pit.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.kit.datamanager.pit.configuration.CliProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+
+@SpringBootTest
+@TestPropertySource(
+    locations = "/test/application-test.properties"
+)
+@ActiveProfiles("test")
+class CliTaskValidateTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    ITypingService typingService;
+
+    @Autowired
+    CliProperties cliProps;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void cleanup() {
+        cliProps.setOutput("");
+    }
+
+    @Test
+    void testReportGroupsFailures() throws IOException {
+        for (String pid : new String[] {"validate/1", "validate/2"}) {
+            // records without a profile are invalid
+            PIDRecord pidRecord = new PIDRecord();
+            pidRecord.setPid(pid);
+            pidRecord.addEntry("21.T11148/some-key", "value");
+            typingService.registerPidUnchecked(pidRecord);
+        }
+        Path reportFile = dir.resolve("report.json");
+        cliProps.setOutput(reportFile.toString());
+
+        ICliTask task = new CliTaskValidate(context, Stream.of("validate/1", "validate/2", "validate/unknown"));
+        assertTrue(task.process());
+
+        JsonNode report = new ObjectMapper().readTree(reportFile.toFile());
+        assertEquals(0, report.get("valid").asLong());
+        assertEquals(2, report.get("invalid").asLong());
+        assertEquals(1, report.get("unresolvable").asLong());
+        JsonNode failures = report.get("failures");
+        assertEquals(1, failures.size());
+        assertEquals(2, failures.get(0).get("count").asLong());
+        assertEquals(2, failures.get(0).get("samplePids").size());
+    }
+}
@@ -1,14 +1,26 @@
 package edu.kit.datamanager.pit.cli;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class CliTaskWriteFileTest {
+
+    @TempDir
+    Path dir;
+
     @Test
     void testCreateFilename() {
         Stream<String> pids = Stream.of("pid1", "pid2");
@@ -21,4 +33,26 @@ class CliTaskWriteFileTest {
         // So lets make sure the filename is not too long:
         assertTrue(filename.length() < 100);
     }
+
+    @Test
+    void testWritePidList() throws IOException {
+        Path out = dir.resolve("pids.csv");
+        CliTaskWriteFile task = new CliTaskWriteFile(Stream.of("pid1", "pid2"));
+        task.cliProps.setOutput(out.toString());
+        assertTrue(task.process());
+        assertEquals("pid1\npid2\n", Files.readString(out));
+    }
+
+    @Test
+    void testWriteCompressed() throws IOException {
+        Path out = dir.resolve("sub/pids.csv.gz");
+        CliTaskWriteFile task = new CliTaskWriteFile(Stream.of("pid1", "pid2"));
+        task.cliProps.setOutput(out.toString());
+        task.cliProps.setCompress(true);
+        assertTrue(task.process());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(out))) {
+            assertEquals("pid1\npid2\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(task.createFilename().endsWith(".csv.gz"));
+    }
 }
@@ -208,6 +208,59 @@ class PIDRecordTest {
         this.equals(first, second);
     }
 
+    @Test
+    void testEqualityAlthoughDuplicates() {
+        PIDRecord first = new PIDRecord();
+        PIDRecord second = new PIDRecord();
+
+        first.addEntry("key", "name", "value");
+        first.addEntry("key", "name", "value");
+        second.addEntry("key", "name", "value");
+
+        this.equals(first, second);
+    }
+
+    @Test
+    void testInequalityOfSwappedKeysAndValues() {
+        PIDRecord first = new PIDRecord();
+        PIDRecord second = new PIDRecord();
+
+        first.addEntry("key", "name", "value");
+        second.addEntry("value", "name", "key");
+
+        this.notEquals(first, second);
+    }
+
+    @Test
+    void testEtagChangesOnModification() {
+        PIDRecord rec = new PIDRecord().withPID(PID);
+        rec.addEntry("key", "name", "value");
+        String etag = rec.getEtag();
+        assertEquals(etag, rec.getEtag());
+
+        rec.addEntry("key", "name", "other value");
+        String etagAfterAdd = rec.getEtag();
+        assertNotEquals(etag, etagAfterAdd);
+
+        rec.getEntries().get("key").get(1).setValue("modified value");
+        String etagAfterDirectModification = rec.getEtag();
+        assertNotEquals(etagAfterAdd, etagAfterDirectModification);
+
+        rec.removeAllValuesOf("key");
+        assertNotEquals(etagAfterDirectModification, rec.getEtag());
+
+        rec.setPid("other/pid");
+        assertNotEquals(new PIDRecord().withPID(PID).getEtag(), rec.getEtag());
+    }
+
+    @Test
+    void testEtagIs128Bit() {
+        PIDRecord rec = new PIDRecord().withPID(PID);
+        rec.addEntry("key", "name", "value");
+        // 128 bit in hexadecimal representation
+        assertEquals(32, rec.getEtag().length());
+    }
+
     private void equals(PIDRecord first, PIDRecord second) {
         assertEquals(first, second);
         assertEquals(second, first);
@@ -0,0 +1,232 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import edu.kit.datamanager.pit.configuration.BulkIndexProperties;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pitservice.ITypingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit5 + Spring
+@SpringBootTest
+// Set the in-memory implementation
+@TestPropertySource("/test/application-test.properties")
+@ActiveProfiles("test")
+class BulkIndexerTest {
+
+    /**
+     * Stand-in for the bulk endpoint of Elasticsearch. Remembers all requests
+     * and lets the configured PIDs fail.
+     */
+    static class RecordingSink implements IBulkIndexSink {
+        final List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> indexed = Collections.synchronizedSet(new HashSet<>());
+        final Set<String> failing = Collections.synchronizedSet(new HashSet<>());
+        /** The document currently in the index, per PID. */
+        final Map<String, PidRecordElasticWrapper> stored = new ConcurrentHashMap<>();
+        volatile boolean isDown = false;
+
+        @Override
+        public Set<String> index(List<PidRecordElasticWrapper> documents) {
+            List<String> pids = documents.stream().map(PidRecordElasticWrapper::getPid).toList();
+            requests.add(pids);
+            if (isDown) {
+                throw new IllegalStateException("Elasticsearch is not available.");
+            }
+            Set<String> failed = pids.stream().filter(failing::contains).collect(Collectors.toSet());
+            pids.stream().filter(pid -> !failed.contains(pid)).forEach(indexed::add);
+            documents.stream()
+                .filter(document -> !failed.contains(document.getPid()))
+                .forEach(document -> stored.put(document.getPid(), document));
+            return failed;
+        }
+    }
+
+    @Autowired
+    ITypingService typingService;
+
+    RecordingSink sink;
+    BulkIndexProperties props;
+    SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        sink = new RecordingSink();
+        props = new BulkIndexProperties();
+        props.setBatchSize(3);
+        props.setCapacity(10);
+        props.setMaxAttempts(2);
+        props.setOfferTimeoutMs(0);
+        registry = new SimpleMeterRegistry();
+    }
+
+    PidRecordElasticWrapper document(String pid) {
+        return new PidRecordElasticWrapper(new PIDRecord().withPID(pid), typingService.getOperations());
+    }
+
+    @Test
+    void testFlushInBatches() {
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        for (int i = 0; i < 7; i++) {
+            indexer.add(document("pid-" + i));
+        }
+        assertEquals(7, indexer.getQueueDepth());
+        assertEquals(7.0, registry.get("pit.elastic.bulk.queue").gauge().value());
+
+        assertEquals(0, indexer.flushAll());
+        assertEquals(List.of(3, 3, 1), sink.requests.stream().map(List::size).toList());
+        assertEquals(7, sink.indexed.size());
+        assertEquals(0, indexer.getQueueDepth());
+        assertEquals(7.0, registry.get("pit.elastic.bulk.indexed").counter().count());
+        assertEquals(3, registry.get("pit.elastic.bulk.flush").timer().count());
+    }
+
+    @Test
+    void testRetryFailedDocuments() {
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        sink.failing.add("pid-1");
+        indexer.add(document("pid-0"));
+        indexer.add(document("pid-1"));
+
+        // the failed document is kept for the next batch
+        assertEquals(1, indexer.flushAll());
+        assertEquals(Set.of("pid-0"), sink.indexed);
+        assertEquals(1.0, registry.get("pit.elastic.bulk.retried").counter().count());
+
+        sink.failing.clear();
+        assertEquals(0, indexer.flushAll());
+        assertEquals(Set.of("pid-0", "pid-1"), sink.indexed);
+        assertEquals(List.of("pid-1"), sink.requests.get(1));
+    }
+
+    @Test
+    void testRetryDoesNotOverwriteNewerDocument() {
+        props.setMaxAttempts(5);
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        PidRecordElasticWrapper older = document("pid-1");
+        PidRecordElasticWrapper newer = document("pid-1");
+        sink.failing.add("pid-1");
+        indexer.add(older);
+        assertEquals(1, indexer.flushAll());
+
+        sink.failing.clear();
+        indexer.add(newer);
+        assertEquals(0, indexer.flushAll());
+        assertSame(newer, sink.stored.get("pid-1"));
+        assertEquals(1, sink.requests.get(1).size());
+        assertEquals(1.0, registry.get("pit.elastic.bulk.superseded").counter().count());
+
+        // nothing left which could overwrite it later
+        assertEquals(0, indexer.getQueueDepth());
+        assertEquals(0, indexer.flushAll());
+        assertSame(newer, sink.stored.get("pid-1"));
+    }
+
+    @Test
+    void testDirectIndexingSupersedesQueuedDocuments() {
+        props.setCapacity(1);
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        PidRecordElasticWrapper older = document("pid-0");
+        PidRecordElasticWrapper newer = document("pid-0");
+        indexer.add(older);
+        // queue is full, so this one is indexed directly
+        indexer.add(newer);
+        assertSame(newer, sink.stored.get("pid-0"));
+
+        assertEquals(0, indexer.flushAll());
+        assertSame(newer, sink.stored.get("pid-0"));
+        assertEquals(1, sink.requests.size());
+    }
+
+    @Test
+    void testIndexReportsFailures() {
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        PidRecordElasticWrapper older = document("pid-0");
+        PidRecordElasticWrapper newer = document("pid-0");
+        indexer.add(older);
+        sink.failing.add("pid-0");
+        assertThrows(IllegalStateException.class, () -> indexer.index(newer));
+
+        sink.failing.clear();
+        indexer.index(newer);
+        assertSame(newer, sink.stored.get("pid-0"));
+        // the queued older document must not overwrite it
+        assertEquals(0, indexer.flushAll());
+        assertSame(newer, sink.stored.get("pid-0"));
+    }
+
+    @Test
+    void testInterruptedAddIndexesDirectly() {
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        PidRecordElasticWrapper document = document("pid-0");
+        Thread.currentThread().interrupt();
+        indexer.add(document);
+        assertTrue(Thread.interrupted());
+        assertSame(document, sink.stored.get("pid-0"));
+        assertEquals(0, indexer.getQueueDepth());
+    }
+
+    @Test
+    void testDropAfterMaxAttempts() {
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        sink.isDown = true;
+        indexer.add(document("pid-0"));
+        assertEquals(1, indexer.flushAll());
+        assertEquals(0, indexer.flushAll());
+        assertEquals(2, sink.requests.size());
+        assertTrue(sink.indexed.isEmpty());
+        assertEquals(1.0, registry.get("pit.elastic.bulk.dropped").counter().count());
+    }
+
+    @Test
+    void testIndexDirectlyIfQueueIsFull() {
+        props.setCapacity(2);
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        indexer.add(document("pid-0"));
+        indexer.add(document("pid-1"));
+        // the queue is full and nobody flushes it, so the caller has to index itself
+        indexer.add(document("pid-2"));
+        assertEquals(List.of(List.of("pid-2")), sink.requests);
+        assertEquals(2, indexer.getQueueDepth());
+
+        indexer.close();
+        assertEquals(Set.of("pid-0", "pid-1", "pid-2"), sink.indexed);
+    }
+
+    @Test
+    void testBackgroundFlush() throws InterruptedException {
+        props.setFlushIntervalMs(10);
+        BulkIndexer indexer = new BulkIndexer(sink, props, registry);
+        indexer.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                indexer.add(document("pid-" + i));
+            }
+            for (int i = 0; i < 100 && sink.indexed.size() < 5; i++) {
+                Thread.sleep(20);
+            }
+            assertEquals(5, sink.indexed.size());
+        } finally {
+            indexer.close();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package edu.kit.datamanager.pit.elasticsearch;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
@@ -37,4 +41,24 @@ class PidRecordElasticWrapperTest {
         PidRecordElasticWrapper wrapper = new PidRecordElasticWrapper(pidRecord, typingService.getOperations());
         assertNotNull(wrapper);
     }
+
+    /**
+     * Search hits are read with the converter, which needs a usable constructor.
+     */
+    @Test
+    void testReadStoredDocument() throws JacksonException {
+        PIDRecord pidRecord = ApiMockUtils.getSomePidRecordInstance();
+        PidRecordElasticWrapper wrapper = new PidRecordElasticWrapper(pidRecord, typingService.getOperations());
+        MappingElasticsearchConverter converter = new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+
+        Document document = Document.create();
+        converter.write(wrapper, document);
+        PidRecordElasticWrapper read = converter.read(PidRecordElasticWrapper.class, document);
+
+        assertEquals(wrapper.getPid(), read.getPid());
+        assertEquals(wrapper.getAttributes(), read.getAttributes());
+        assertEquals(wrapper.getCreated(), read.getCreated());
+        assertEquals(wrapper.getLastUpdate(), read.getLastUpdate());
+    }
 }
@@ -0,0 +1,60 @@
+package edu.kit.datamanager.pit.elasticsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import edu.kit.datamanager.pit.common.InvalidContinuationTokenException;
+import edu.kit.datamanager.pit.web.ContinuationToken;
+
+class PidRecordSearchTest {
+
+    @Test
+    void testQueryWithAllCriteria() {
+        PidRecordSearch.Criteria criteria = new PidRecordSearch.Criteria(
+            Map.of("21.T11148/c692273deb2772da307f", List.of("1.0.0")),
+            "manuscript page",
+            Instant.parse("2024-01-01T00:00:00Z"),
+            null,
+            null,
+            Instant.parse("2024-02-01T00:00:00Z"));
+        NativeQuery query = PidRecordSearch.buildQuery(criteria, 21, List.of("prefix/last"));
+
+        String json = query.getQuery().toString();
+        assertTrue(json.contains("attributes.21.T11148/c692273deb2772da307f"), json);
+        assertTrue(json.contains("1.0.0"), json);
+        assertTrue(json.contains("manuscript page"), json);
+        assertTrue(json.contains("2024-01-01T00:00:00Z"), json);
+        assertTrue(json.contains("lastUpdate"), json);
+        assertEquals(List.of("prefix/last"), query.getSearchAfter());
+        assertEquals(21, query.getPageable().getPageSize());
+        assertEquals(0, query.getPageable().getPageNumber());
+    }
+
+    @Test
+    void testQueryWithoutCriteria() {
+        PidRecordSearch.Criteria criteria = new PidRecordSearch.Criteria(Map.of(), null, null, null, null, null);
+        NativeQuery query = PidRecordSearch.buildQuery(criteria, 10, List.of());
+        String json = query.getQuery().toString();
+        assertFalse(json.contains("range"), json);
+        assertNull(query.getSearchAfter());
+    }
+
+    @Test
+    void testSearchAfterToken() {
+        List<Object> sortValues = List.of("prefix/some-pid");
+        String token = ContinuationToken.encodeSearchAfter(sortValues);
+        assertEquals(sortValues, ContinuationToken.decodeSearchAfter(token));
+        assertEquals(List.of(), ContinuationToken.decodeSearchAfter(""));
+        assertThrows(InvalidContinuationTokenException.class, () -> ContinuationToken.decodeSearchAfter("not-a-token!"));
+    }
+}
@@ -0,0 +1,59 @@
+package edu.kit.datamanager.pit.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.web.ApiMockUtils;
+
+/**
+ * Resolving records without storing them or indexing them has no side effects,
+ * so nothing should be written to the outbox.
+ */
+@SpringBootTest(
+    properties = {
+        "pit.validation.strategy = none-debug",
+        "pit.outbox.enabled = true",
+        "pit.outbox.poll-interval-ms = 3600000",
+    }
+)
+@TestPropertySource(
+    locations = "/test/application-test.properties",
+    properties = "pit.storage.strategy = keep-modified"
+)
+@ActiveProfiles("test")
+class OutboxReadsTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private OutboxEventDao outbox;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+        this.outbox.deleteAll();
+    }
+
+    @Test
+    void testResolveWritesNoEvent() throws Exception {
+        PIDRecord created = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        assertEquals(1, this.outbox.count());
+
+        ApiMockUtils.resolveRecord(this.mockMvc, created.getPid());
+        ApiMockUtils.resolveRecord(this.mockMvc, created.getPid());
+        assertEquals(1, this.outbox.count());
+    }
+}
@@ -0,0 +1,176 @@
+package edu.kit.datamanager.pit.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticRepository;
+import edu.kit.datamanager.pit.elasticsearch.PidRecordElasticWrapper;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.web.ApiMockUtils;
+
+@SpringBootTest(
+    properties = {
+        // assume validation will succeed, as we want to only test the outbox here
+        "pit.validation.strategy = none-debug",
+        "pit.outbox.enabled = true",
+        // the test triggers the worker manually
+        "pit.outbox.poll-interval-ms = 3600000",
+    }
+)
+@TestPropertySource("/test/application-test.properties")
+@ActiveProfiles("test")
+class OutboxWorkerTest {
+
+    /** Documents in the search index, by PID. */
+    private static final Map<String, PidRecordElasticWrapper> INDEXED = new ConcurrentHashMap<>();
+    private static final AtomicBoolean FAIL_NEXT_INDEXING = new AtomicBoolean(false);
+
+    @TestConfiguration
+    static class SearchIndex {
+        /**
+         * A search index which only supports saving documents, and can be made
+         * to fail once.
+         */
+        @Bean
+        PidRecordElasticRepository pidRecordElasticRepository() {
+            return (PidRecordElasticRepository) Proxy.newProxyInstance(
+                OutboxWorkerTest.class.getClassLoader(),
+                new Class<?>[] {PidRecordElasticRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        if (FAIL_NEXT_INDEXING.getAndSet(false)) {
+                            throw new IllegalStateException("search index unavailable");
+                        }
+                        PidRecordElasticWrapper document = (PidRecordElasticWrapper) args[0];
+                        INDEXED.put(document.getPid(), document);
+                        yield document;
+                    }
+                    case "toString" -> "test search index";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        }
+    }
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private OutboxWorker worker;
+
+    @Autowired
+    private OutboxEventDao outbox;
+
+    @Autowired
+    private KnownPidsDao knownPidsDao;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+        this.outbox.deleteAll();
+        this.knownPidsDao.deleteAll();
+        INDEXED.clear();
+        FAIL_NEXT_INDEXING.set(false);
+    }
+
+    @Test
+    void testSideEffectsAreDeferredUntilDrained() throws Exception {
+        PIDRecord created = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        ApiMockUtils.resolveRecord(this.mockMvc, created.getPid());
+
+        // nothing happened yet, except writing to the outbox
+        assertFalse(this.knownPidsDao.findByPid(created.getPid()).isPresent());
+        List<OutboxEvent> events = this.outbox.findByFailedFalseOrderByIdAsc(PageRequest.of(0, 10));
+        assertEquals(2, events.size());
+        assertEquals(RecordEventType.CREATED, events.get(0).getType());
+        assertEquals(RecordEventType.RESOLVED, events.get(1).getType());
+
+        this.worker.drain();
+
+        assertEquals(0, this.outbox.count());
+        KnownPid known = this.knownPidsDao.findByPid(created.getPid()).orElseThrow();
+        // the timestamps are the ones of the event, not of the processing
+        assertEquals(events.get(0).getOccurred().toEpochMilli(), known.getCreated().toEpochMilli());
+        assertEquals(known.getCreated(), known.getModified());
+        assertEquals(created.getEtag(), known.getRecordEtag());
+    }
+
+    @Test
+    void testFailedIndexingIsRetried() throws Exception {
+        PIDRecord created = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        FAIL_NEXT_INDEXING.set(true);
+
+        assertEquals(0, this.worker.drainBatch());
+        assertFalse(INDEXED.containsKey(created.getPid()));
+        // the etag must not be stored yet, or the retry would consider the record indexed
+        assertFalse(this.knownPidsDao.findByPid(created.getPid()).isPresent());
+
+        // make the retry due now
+        OutboxEvent event = this.outbox.findByFailedFalseOrderByIdAsc(PageRequest.of(0, 10)).get(0);
+        event.registerFailure(new IllegalStateException("test"), Instant.EPOCH, 10, 0, 0);
+        this.outbox.save(event);
+
+        this.worker.drain();
+        assertEquals(0, this.outbox.count());
+        assertTrue(INDEXED.containsKey(created.getPid()));
+        assertEquals(created.getEtag(), this.knownPidsDao.findByPid(created.getPid()).orElseThrow().getRecordEtag());
+    }
+
+    @Test
+    void testBrokenEventIsRetriedAndGivenUp() {
+        Instant now = Instant.now();
+        OutboxEvent broken = this.outbox.save(new OutboxEvent(RecordEventType.CREATED, "some/pid", "not json", null, now));
+        // same PID, must wait for the broken event
+        OutboxEvent next = this.outbox.save(new OutboxEvent(RecordEventType.RESOLVED, "some/pid", "not json", null, now));
+
+        assertEquals(0, this.worker.drainBatch());
+        OutboxEvent afterFirstAttempt = this.outbox.findById(broken.getId()).orElseThrow();
+        assertEquals(1, afterFirstAttempt.getAttempts());
+        assertFalse(afterFirstAttempt.isFailed());
+        assertTrue(afterFirstAttempt.getNextAttempt().isAfter(now));
+        assertEquals(0, this.outbox.findById(next.getId()).orElseThrow().getAttempts());
+    }
+
+    @Test
+    void testBackoffDoesNotBlockOtherPids() throws Exception {
+        Instant now = Instant.now();
+        // fills a whole batch with events waiting for a retry
+        for (int i = 0; i < 250; i++) {
+            OutboxEvent waiting = new OutboxEvent(RecordEventType.CREATED, "waiting/" + i, "not json", null, now);
+            waiting.registerFailure(new IllegalStateException("test"), now, 10, 60_000, 60_000);
+            this.outbox.save(waiting);
+        }
+        PIDRecord created = ApiMockUtils.registerSomeRecord(this.mockMvc);
+
+        this.worker.drain();
+
+        assertTrue(this.knownPidsDao.findByPid(created.getPid()).isPresent());
+        assertEquals(250, this.outbox.count());
+    }
+}
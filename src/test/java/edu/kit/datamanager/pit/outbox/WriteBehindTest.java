@@ -0,0 +1,163 @@
+package edu.kit.datamanager.pit.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
+import edu.kit.datamanager.pit.web.ApiMockUtils;
+
+@SpringBootTest(
+    properties = {
+        // assume validation will succeed, as we want to only test the buffer here
+        "pit.validation.strategy = none-debug",
+        "pit.storage.write-behind.enabled = true",
+        // the test triggers flushes manually
+        "pit.storage.write-behind.flush-interval-ms = 3600000",
+    }
+)
+@TestPropertySource("/test/application-test.properties")
+@ActiveProfiles("test")
+class WriteBehindTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private RecordSideEffects sideEffects;
+
+    @Autowired
+    private KnownPidsDao knownPidsDao;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+        this.knownPidsDao.deleteAll();
+    }
+
+    @Test
+    void testResolvedPidIsStoredOnFlush() throws Exception {
+        PIDRecord created = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        // creation is not buffered
+        assertTrue(this.knownPidsDao.findByPid(created.getPid()).isPresent());
+        this.knownPidsDao.deleteAll();
+
+        ApiMockUtils.resolveRecord(this.mockMvc, created.getPid());
+        ApiMockUtils.resolveRecord(this.mockMvc, created.getPid());
+        assertFalse(this.knownPidsDao.findByPid(created.getPid()).isPresent());
+
+        this.sideEffects.flushResolved();
+        assertEquals(1, this.knownPidsDao.count());
+        KnownPid known = this.knownPidsDao.findByPid(created.getPid()).orElseThrow();
+        assertEquals(created.getEtag(), known.getRecordEtag());
+        assertEquals(known.getCreated(), known.getModified());
+    }
+
+    @Test
+    void testBufferDeduplicates() throws Exception {
+        ResolvedRecordsBuffer buffer = new ResolvedRecordsBuffer(2, 10, 100);
+        PIDRecord first = ApiMockUtils.getSomePidRecordInstance();
+        first.setPid("first");
+        PIDRecord second = ApiMockUtils.clone(first);
+        second.setPid("second");
+        Instant earlier = Instant.now();
+
+        assertFalse(buffer.offer(first, earlier));
+        assertFalse(buffer.offer(first, earlier.plusSeconds(1)));
+        assertEquals(1, buffer.size());
+        assertTrue(buffer.offer(second, earlier));
+
+        var drained = buffer.drain();
+        assertEquals(2, drained.size());
+        assertEquals(0, buffer.size());
+        // the first resolution is remembered
+        assertTrue(drained.stream().anyMatch(p -> p.pidRecord().getPid().equals("first") && p.seen().equals(earlier)));
+
+        buffer.markStored(drained);
+        assertFalse(buffer.offer(first, earlier));
+        assertEquals(0, buffer.size());
+        // a new version of the record is buffered again
+        first.addEntry("21.T11148/d0773859091aeb451528", "", "fake/pid");
+        buffer.offer(first, earlier);
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void testVersionChangingBackIsStoredAgain() throws Exception {
+        ResolvedRecordsBuffer buffer = new ResolvedRecordsBuffer(10, 10, 100);
+        PIDRecord versionA = ApiMockUtils.getSomePidRecordInstance();
+        versionA.setPid("pid");
+        PIDRecord versionB = ApiMockUtils.clone(versionA);
+        versionB.addEntry("21.T11148/d0773859091aeb451528", "", "fake/pid");
+        Instant now = Instant.now();
+
+        buffer.offer(versionA, now);
+        buffer.markStored(buffer.drain());
+        buffer.offer(versionB, now);
+        buffer.markStored(buffer.drain());
+        // A is not the last stored version anymore
+        buffer.offer(versionA, now);
+        assertEquals(1, buffer.size());
+        assertEquals(versionA.getEtag(), buffer.drain().get(0).pidRecord().getEtag());
+    }
+
+    @Test
+    void testCapacityLimitsRequeue() throws Exception {
+        ResolvedRecordsBuffer buffer = new ResolvedRecordsBuffer(1, 2, 100);
+        Instant now = Instant.now();
+        for (int i = 0; i < 2; i++) {
+            PIDRecord pidRecord = ApiMockUtils.getSomePidRecordInstance();
+            pidRecord.setPid("failed/" + i);
+            buffer.offer(pidRecord, now);
+        }
+        assertTrue(buffer.isAtCapacity());
+        var failedFlush = buffer.drain();
+        assertFalse(buffer.isAtCapacity());
+
+        // resolved while the flush was running
+        PIDRecord resolved = ApiMockUtils.getSomePidRecordInstance();
+        resolved.setPid("resolved");
+        buffer.offer(resolved, now);
+        buffer.requeue(failedFlush);
+
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.dropped());
+        assertTrue(buffer.isAtCapacity());
+    }
+
+    @Test
+    void testRequeueKeepsNewerRecord() throws Exception {
+        ResolvedRecordsBuffer buffer = new ResolvedRecordsBuffer(10, 10, 100);
+        PIDRecord older = ApiMockUtils.getSomePidRecordInstance();
+        older.setPid("pid");
+        PIDRecord newer = ApiMockUtils.clone(older);
+        newer.addEntry("21.T11148/d0773859091aeb451528", "", "fake/pid");
+        Instant now = Instant.now();
+
+        buffer.offer(older, now);
+        var failedFlush = buffer.drain();
+        // resolved again while the flush was running
+        buffer.offer(newer, now.plusSeconds(1));
+        buffer.requeue(failedFlush);
+
+        var pending = buffer.drain();
+        assertEquals(1, pending.size());
+        assertEquals(newer.getEtag(), pending.get(0).pidRecord().getEtag());
+    }
+}
@@ -7,6 +7,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.AfterAll;
@@ -197,4 +198,29 @@ class KnownPidsDaoTest {
             page = page_siblings.nextPageable();
         } while (page_siblings.hasNext());
     }
+
+    @Test
+    void testCountPerBucket() {
+        Instant from = TOO_SOON.minus(357, ChronoUnit.DAYS);
+        Instant to = TOO_LATE.plus(357, ChronoUnit.DAYS);
+        for (TimeBucket bucket : TimeBucket.values()) {
+            List<KnownPidStatistics> stats = knownPidsDao.countPerBucket(bucket, from, to);
+            assertEquals(7, stats.stream().mapToLong(KnownPidStatistics::created).sum());
+            assertEquals(7, stats.stream().mapToLong(KnownPidStatistics::modified).sum());
+            for (int i = 1; i < stats.size(); i++) {
+                assertTrue(stats.get(i - 1).start().isBefore(stats.get(i).start()));
+            }
+        }
+        // SOONER, LATER and MAX are the same instant.
+        List<KnownPidStatistics> restricted = knownPidsDao.countPerBucket(TimeBucket.HOUR, MIN, MAX);
+        assertEquals(3, restricted.stream().mapToLong(KnownPidStatistics::created).sum());
+    }
+
+    @Test
+    void testBucketsStartInUtc() {
+        List<KnownPidStatistics> hours = knownPidsDao.countPerBucket(TimeBucket.HOUR, MIN, MAX);
+        assertTrue(hours.stream().anyMatch(s -> s.start().equals(NOW.truncatedTo(ChronoUnit.HOURS))));
+        List<KnownPidStatistics> days = knownPidsDao.countPerBucket(TimeBucket.DAY, MIN, MAX);
+        assertTrue(days.stream().anyMatch(s -> s.start().equals(NOW.truncatedTo(ChronoUnit.DAYS))));
+    }
 }
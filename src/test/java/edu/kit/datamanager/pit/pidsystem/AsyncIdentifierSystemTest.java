@@ -0,0 +1,84 @@
+package edu.kit.datamanager.pit.pidsystem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.kit.datamanager.pit.common.ExternalServiceException;
+import edu.kit.datamanager.pit.common.PidNotFoundException;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pidsystem.impl.InMemoryIdentifierSystem;
+
+class AsyncIdentifierSystemTest {
+
+    private CountDownLatch blocked;
+    private AsyncIdentifierSystem async;
+
+    @BeforeEach
+    void setup() {
+        this.blocked = new CountDownLatch(1);
+        IIdentifierSystem system = new InMemoryIdentifierSystem() {
+            @Override
+            public PIDRecord queryAllProperties(String pid) throws PidNotFoundException, ExternalServiceException {
+                if (pid.startsWith("unknown")) {
+                    throw new PidNotFoundException(pid);
+                }
+                if (pid.startsWith("slow")) {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.queryAllProperties(pid);
+            }
+        };
+        this.async = new AsyncIdentifierSystem(system, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        this.blocked.countDown();
+        this.async.close();
+    }
+
+    @Test
+    void testRegisterAndQuery() throws IOException {
+        PIDRecord rec = new PIDRecord().withPID("test/async");
+        rec.addEntry("attribute", "value");
+        String pid = AsyncIdentifierSystem.await(async.registerPID(rec));
+        assertTrue(AsyncIdentifierSystem.await(async.isIdentifierRegistered(pid)));
+        assertEquals(rec, AsyncIdentifierSystem.await(async.queryAllProperties(pid)));
+        assertFalse(AsyncIdentifierSystem.await(async.isIdentifierRegistered("test/other")));
+    }
+
+    @Test
+    void testAwaitThrowsOriginalException() {
+        CompletableFuture<PIDRecord> query = async.queryAllProperties("unknown/pid");
+        assertThrows(PidNotFoundException.class, () -> AsyncIdentifierSystem.await(query));
+        CompletableFuture<Boolean> delete = async.deletePID("test/pid");
+        assertThrows(UnsupportedOperationException.class, () -> AsyncIdentifierSystem.await(delete));
+    }
+
+    @Test
+    void testOperationsDoNotBlockTheCaller() throws Exception {
+        CompletableFuture<PIDRecord> slow = async.queryAllProperties("slow/pid");
+        // another operation completes while the first one still waits
+        assertFalse(AsyncIdentifierSystem.await(async.isIdentifierRegistered("other/pid")));
+        assertFalse(slow.isDone());
+        blocked.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        assertTrue(slow.isDone());
+    }
+}
@@ -0,0 +1,79 @@
+package edu.kit.datamanager.pit.typeregistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import edu.kit.datamanager.pit.domain.Operations;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex.Match;
+import edu.kit.datamanager.pit.typeregistry.SemanticTypeIndex.Role;
+
+class SemanticTypeIndexTest {
+
+    static TypeDefinition type(String pid, String name) {
+        TypeDefinition type = new TypeDefinition();
+        type.setIdentifier(pid);
+        type.setName(name);
+        return type;
+    }
+
+    @Test
+    void testWellKnownTypes() {
+        SemanticTypeIndex index = new SemanticTypeIndex(CacheBuilder.newBuilder().build());
+        assertEquals(
+            Optional.of(new Match(Role.DATE_CREATED, true)),
+            index.lookup("21.T11148/aafd5fb4c7222e2d950a"));
+        assertEquals(
+            Optional.of(new Match(Role.DATE_MODIFIED, true)),
+            index.lookup("21.T11148/397d831aa3a9d18eb52c"));
+        assertTrue(index.lookup("unknown/type").isEmpty());
+    }
+
+    @Test
+    void testCachedTypesByName() {
+        Cache<String, TypeDefinition> cache = CacheBuilder.newBuilder().build();
+        SemanticTypeIndex index = new SemanticTypeIndex(cache);
+
+        // types cached since the last refresh are found directly
+        cache.put("test/created", type("test/created", "creationDate"));
+        assertEquals(Optional.of(new Match(Role.DATE_CREATED, false)), index.lookup("test/created"));
+
+        // properties of cached profiles are only known after a refresh
+        TypeDefinition profile = type("test/profile", "someProfile");
+        profile.addSubType(type("test/modified", "lastModified"));
+        cache.put("test/profile", profile);
+        assertTrue(index.lookup("test/modified").isEmpty());
+        index.refresh();
+        assertEquals(Optional.of(new Match(Role.DATE_MODIFIED, false)), index.lookup("test/modified"));
+        assertTrue(index.lookup("test/profile").isEmpty());
+    }
+
+    @Test
+    void testFindDatesPrefersWellKnownTypes() {
+        Cache<String, TypeDefinition> cache = CacheBuilder.newBuilder().build();
+        cache.put("test/created", type("test/created", "dateCreated"));
+        Operations operations = new Operations(new SemanticTypeIndex(cache));
+
+        PIDRecord pidRecord = new PIDRecord();
+        pidRecord.addEntry("test/created", "", "2020-01-01T00:00:00.000+00:00");
+        Operations.RecordDates dates = operations.findDates(pidRecord);
+        assertEquals(Optional.of(new Date(1577836800000L)), dates.created());
+        assertTrue(dates.modified().isEmpty());
+
+        pidRecord.addEntry("21.T11148/aafd5fb4c7222e2d950a", "", "2021-01-01T00:00:00.000+00:00");
+        pidRecord.addEntry("21.T11148/aafd5fb4c7222e2d950a", "", "2022-01-01T00:00:00.000+00:00");
+        pidRecord.addEntry("21.T11148/397d831aa3a9d18eb52c", "", "2023-01-01T00:00:00.000+00:00");
+        dates = operations.findDates(pidRecord);
+        assertEquals(Optional.of(new Date(1609459200000L)), dates.created());
+        assertEquals(Optional.of(new Date(1672531200000L)), dates.modified());
+    }
+}
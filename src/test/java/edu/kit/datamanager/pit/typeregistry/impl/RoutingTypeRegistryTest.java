@@ -0,0 +1,125 @@
+package edu.kit.datamanager.pit.typeregistry.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.kit.datamanager.pit.configuration.TypeRegistryProperties;
+import edu.kit.datamanager.pit.domain.TypeDefinition;
+import edu.kit.datamanager.pit.typeregistry.ITypeRegistry;
+
+class RoutingTypeRegistryTest {
+
+    private static ITypeRegistry named(String name) {
+        return typeIdentifier -> {
+            TypeDefinition type = new TypeDefinition();
+            type.setIdentifier(typeIdentifier);
+            type.setName(name);
+            return type;
+        };
+    }
+
+    @Test
+    void routesByPrefix() throws IOException, URISyntaxException {
+        RoutingTypeRegistry routing = new RoutingTypeRegistry(named("fallback"));
+        routing.addRegistry("21.T11148", named("direct"));
+        routing.addRegistry("21.T11969/", named("other"));
+
+        assertEquals("direct", routing.queryTypeDefinition("21.T11148/abc").getName());
+        assertEquals("other", routing.queryTypeDefinition("21.T11969/abc").getName());
+        // prefixes are matched exactly, not as string prefix
+        assertEquals("fallback", routing.queryTypeDefinition("21.T11148.1/abc").getName());
+        assertEquals("fallback", routing.queryTypeDefinition("21.T11/abc").getName());
+        assertEquals("fallback", routing.queryTypeDefinition("no-prefix").getName());
+    }
+
+    @Test
+    void extractsPrefixes() {
+        assertEquals("21.T11148", RoutingTypeRegistry.prefixOf("21.T11148/abc"));
+        assertNull(RoutingTypeRegistry.prefixOf("no-prefix"));
+        assertNull(RoutingTypeRegistry.prefixOf("/abc"));
+        assertEquals("21.T11148", RoutingTypeRegistry.normalizePrefix(" 21.T11148/ "));
+    }
+
+    @Test
+    void defaultsToObjectsApiOfConfiguredRegistry() throws Exception {
+        assertEquals(
+                new URI("https://dtr-test.pidconsortium.eu/objects/"),
+                RoutingTypeRegistry.defaultApiUri(URI.create("https://dtr-test.pidconsortium.eu/").toURL()));
+        assertEquals(
+                new URI("https://example.org/dtr/objects/"),
+                RoutingTypeRegistry.defaultApiUri(URI.create("https://example.org/dtr").toURL()));
+    }
+
+    @Test
+    void rejectsDuplicatePrefixes() {
+        RoutingTypeRegistry routing = new RoutingTypeRegistry(named("fallback"));
+        routing.addRegistry("21.T11148", named("direct"));
+        assertThrows(IllegalArgumentException.class, () -> routing.addRegistry("21.T11148/", named("other")));
+    }
+
+    @Test
+    void queriesApiDirectly() throws IOException, URISyntaxException {
+        List<String> paths = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            paths.add(exchange.getRequestURI().getPath());
+            byte[] body = "{\"identifier\": \"21.T11148/abc\", \"name\": \"dateCreated\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        LoadingCache<String, TypeDefinition> typeCache = CacheBuilder.newBuilder()
+                .build(CacheLoader.from(typeIdentifier -> {
+                    throw new UnsupportedOperationException("not used by this test");
+                }));
+        URI baseUri = new URI("http://localhost:" + server.getAddress().getPort() + "/objects/");
+
+        try (CloseableHttpClient client = TypeRegistry.createHttpClient(new TypeRegistryProperties())) {
+            TypeRegistry registry = new TypeRegistry(baseUri, TypeRegistry.createRestTemplate(client), typeCache);
+            TypeDefinition type = registry.queryTypeDefinition("21.T11148/abc");
+            assertEquals("dateCreated", type.getName());
+            assertEquals(List.of("/objects/21.T11148/abc"), paths);
+            assertSame(type, typeCache.getIfPresent("21.T11148/abc"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void registrySettingsOverrideDefaults() {
+        TypeRegistryProperties props = new TypeRegistryProperties();
+        TypeRegistryProperties.Registry registry = new TypeRegistryProperties.Registry();
+        registry.setResponseTimeoutMs(500L);
+        registry.setMaxConnections(2);
+
+        TypeRegistryProperties effective = props.forRegistry(registry);
+        assertEquals(500, effective.getResponseTimeoutMs());
+        assertEquals(2, effective.getMaxConnections());
+        assertEquals(props.getConnectTimeoutMs(), effective.getConnectTimeoutMs());
+        assertEquals(props.getCacheMaxEntries(), effective.getCacheMaxEntries());
+    }
+}
@@ -0,0 +1,112 @@
+package edu.kit.datamanager.pit.typeregistry.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.configuration.TypeRegistryProperties;
+
+/**
+ * Tests the HTTP client used for the type registry against a local server.
+ */
+class TypeRegistryHttpClientTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final String BODY = "{\"identifier\": \"21.T11148/test\"}";
+
+    private record Request(int clientPort, String ifNoneMatch) {}
+
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private CloseableHttpClient client;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/cached", exchange -> respond(exchange, "max-age=1"));
+        server.createContext("/uncached", exchange -> respond(exchange, "no-store"));
+        server.start();
+        client = new Application().httpClient(new TypeRegistryProperties());
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange, String cacheControl) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        requests.add(new Request(exchange.getRemoteAddress().getPort(), ifNoneMatch));
+        exchange.getResponseHeaders().set("Date",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        if (ETAG.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+        } else {
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private String get(String path) throws IOException {
+        String uri = "http://localhost:" + server.getAddress().getPort() + path;
+        return client.execute(new HttpGet(uri), response -> {
+            assertEquals(200, response.getCode());
+            return EntityUtils.toString(response.getEntity());
+        });
+    }
+
+    @Test
+    void reusesConnections() throws IOException {
+        assertEquals(BODY, get("/uncached"));
+        assertEquals(BODY, get("/uncached"));
+        assertEquals(2, requests.size());
+        assertEquals(requests.get(0).clientPort(), requests.get(1).clientPort());
+    }
+
+    @Test
+    void servesFreshResponsesFromCache() throws IOException {
+        assertEquals(BODY, get("/cached"));
+        assertEquals(BODY, get("/cached"));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void revalidatesStaleResponses() throws IOException, InterruptedException {
+        assertEquals(BODY, get("/cached"));
+        // max-age is one second
+        Thread.sleep(2100);
+        // the server answers with 304, the client with the cached body
+        assertEquals(BODY, get("/cached"));
+        assertEquals(2, requests.size());
+        assertNull(requests.get(0).ifNoneMatch());
+        assertEquals(ETAG, requests.get(1).ifNoneMatch());
+    }
+}
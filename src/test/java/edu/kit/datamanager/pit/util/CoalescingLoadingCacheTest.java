@@ -0,0 +1,113 @@
+package edu.kit.datamanager.pit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+class CoalescingLoadingCacheTest {
+
+    private static <V> LoadingCache<String, V> cache(CacheLoader<String, V> loader) {
+        return new CoalescingLoadingCache<>(CacheBuilder.newBuilder(), loader);
+    }
+
+    @Test
+    void testLoadsOnce() throws ExecutionException {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<String, String> cache = cache(CacheLoader.from(key -> key + loads.incrementAndGet()));
+        assertEquals("a1", cache.get("a"));
+        assertEquals("a1", cache.get("a"));
+        assertEquals("a1", cache.getIfPresent("a"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache<String, String> cache = cache(new CacheLoader<>() {
+            @Override
+            public String load(String key) throws InterruptedException {
+                loads.incrementAndGet();
+                release.await();
+                return key;
+            }
+        });
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> cache.get("type")));
+            }
+            // let all threads arrive at the cache before the load finishes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("type", result.get());
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testExceptionsAreWrappedLikeGuava() {
+        LoadingCache<String, String> checked = cache(new CacheLoader<>() {
+            @Override
+            public String load(String key) throws IOException {
+                throw new IOException("unavailable");
+            }
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> checked.get("a"));
+        assertInstanceOf(IOException.class, e.getCause());
+
+        LoadingCache<String, String> unchecked = cache(CacheLoader.from(key -> {
+            throw new IllegalArgumentException(key);
+        }));
+        UncheckedExecutionException u = assertThrows(UncheckedExecutionException.class, () -> unchecked.get("a"));
+        assertInstanceOf(IllegalArgumentException.class, u.getCause());
+    }
+
+    @Test
+    void testNullIsNotCached() {
+        LoadingCache<String, String> cache = cache(CacheLoader.from(key -> null));
+        assertThrows(InvalidCacheLoadException.class, () -> cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testFailedLoadIsRetried() throws ExecutionException {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<String, String> cache = cache(CacheLoader.from(key -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("first attempt fails");
+            }
+            return key;
+        }));
+        assertThrows(UncheckedExecutionException.class, () -> cache.get("a"));
+        assertEquals("a", cache.get("a"));
+    }
+
+    @Test
+    void testRecursiveLoadFails() {
+        List<LoadingCache<String, String>> self = new ArrayList<>();
+        self.add(cache(CacheLoader.from(key -> self.get(0).getUnchecked(key))));
+        UncheckedExecutionException e = assertThrows(UncheckedExecutionException.class, () -> self.get(0).get("a"));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
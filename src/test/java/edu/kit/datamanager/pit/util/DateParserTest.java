@@ -0,0 +1,78 @@
+package edu.kit.datamanager.pit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DateParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2021-12-21T17:36:09.541+00:00",
+        "2021-12-21T17:36:09Z",
+        "2021-12-21t17:36:09z",
+        "2021-12-21T17:36Z",
+        "2021-12-21T17:36:09.123456789-05:30",
+        "2021-12-21 17:36:09+01:00",
+        "2021-12-21T17:36:09+0100",
+        "2021-12-21",
+    })
+    void testValidDates(String value) {
+        assertTrue(DateParser.looksLikeDate(value));
+        assertTrue(DateParser.parse(value).isPresent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "21.T11148/397d831aa3a9d18eb52c",
+        "https://example.com/2021-12-21",
+        "2021-12-21T17:36:09",
+        "2021-12-21T17:36:09.+00:00",
+        "2021-12-21T17:36:09.1234567890Z",
+        "2021-12-21T17:36:09+1",
+        "2021-12-21X17:36:09Z",
+        "2021-12-21T17:36:09Z trailing",
+        "2021/12/21",
+    })
+    void testInvalidSyntax(String value) {
+        assertFalse(DateParser.looksLikeDate(value));
+        assertEquals(Optional.empty(), DateParser.parse(value));
+    }
+
+    @Test
+    void testNull() {
+        assertFalse(DateParser.looksLikeDate(null));
+        assertEquals(Optional.empty(), DateParser.parse(null));
+    }
+
+    @Test
+    void testInvalidDayIsRejected() {
+        assertTrue(DateParser.looksLikeDate("2021-02-30T10:00:00Z"));
+        assertEquals(Optional.empty(), DateParser.parse("2021-02-30T10:00:00Z"));
+        assertEquals(Optional.empty(), DateParser.parse("2021-13-01"));
+        assertEquals(Optional.empty(), DateParser.parse("2021-12-21T25:00:00Z"));
+    }
+
+    @Test
+    void testVariantsDescribeTheSameInstant() {
+        Instant expected = Instant.parse("2021-12-21T16:36:09Z");
+        assertEquals(Optional.of(expected), DateParser.parse("2021-12-21T16:36:09Z"));
+        assertEquals(Optional.of(expected), DateParser.parse("2021-12-21T17:36:09+01:00"));
+        assertEquals(Optional.of(expected), DateParser.parse("2021-12-21T17:36:09+0100"));
+        assertEquals(Optional.of(expected), DateParser.parse("2021-12-21 17:36:09+01:00"));
+        assertEquals(Optional.of(expected), DateParser.parse("2021-12-21 17:36:09.000+0100"));
+    }
+
+    @Test
+    void testDateOnlyIsStartOfDayInUtc() {
+        assertEquals(Optional.of(Instant.parse("2021-12-21T00:00:00Z")), DateParser.parse("2021-12-21"));
+    }
+}
@@ -0,0 +1,57 @@
+package edu.kit.datamanager.pit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExistenceFilterTest {
+
+    @Test
+    void testDisabledFilterAlwaysAnswersMaybe() {
+        ExistenceFilter filter = ExistenceFilter.disabled();
+        filter.load(Stream.of("a"));
+        assertTrue(filter.mightContain("b"));
+        assertFalse(filter.isLoaded());
+    }
+
+    @Test
+    void testAnswersMaybeUntilLoaded() {
+        ExistenceFilter filter = new ExistenceFilter("test", 1000, 0.01, new SimpleMeterRegistry());
+        filter.put("written/while-loading");
+        assertTrue(filter.mightContain("unknown"));
+
+        filter.load(Stream.of("stored/1", "stored/2"));
+        assertTrue(filter.isLoaded());
+        assertTrue(filter.mightContain("stored/1"));
+        assertTrue(filter.mightContain("stored/2"));
+        assertTrue(filter.mightContain("written/while-loading"));
+        assertFalse(filter.mightContain("unknown"));
+    }
+
+    @Test
+    void testMetrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ExistenceFilter filter = new ExistenceFilter("test", 10_000, 0.01, registry);
+        filter.load(IntStream.range(0, 1000).mapToObj(i -> "stored/" + i));
+
+        long negatives = IntStream.range(0, 1000)
+            .mapToObj(i -> "unknown/" + i)
+            .filter(pid -> !filter.mightContain(pid))
+            .count();
+        filter.reportFalsePositive();
+
+        assertEquals(negatives, registry.get("pit.existence.filter.negatives").tag("store", "test").functionCounter().count());
+        assertEquals(1, registry.get("pit.existence.filter.false.positives").functionCounter().count());
+        assertEquals(1.0 / (negatives + 1), registry.get("pit.existence.filter.fpp.observed").gauge().value(), 1e-9);
+        assertTrue(registry.get("pit.existence.filter.fpp.expected").gauge().value() < 0.01);
+        assertEquals(1000, registry.get("pit.existence.filter.pids").gauge().value(), 50);
+    }
+}
@@ -0,0 +1,59 @@
+package edu.kit.datamanager.pit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+class PartitionedLoadingCacheTest {
+
+    private static LoadingCache<String, String> bounded(int maximumSize) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build(CacheLoader.from(key -> key.toUpperCase()));
+    }
+
+    private static PartitionedLoadingCache<String> cache() {
+        return new PartitionedLoadingCache<>(
+                key -> key.contains("/") ? key.substring(0, key.indexOf('/')) : null,
+                Map.of("a", bounded(2), "b", bounded(2)),
+                bounded(2));
+    }
+
+    @Test
+    void testPartitionsDoNotEvictEachOther() throws ExecutionException {
+        PartitionedLoadingCache<String> cache = cache();
+        assertEquals("A/1", cache.get("a/1"));
+        for (int i = 0; i < 100; i++) {
+            cache.get("b/" + i);
+            cache.get("other/" + i);
+        }
+        assertNotNull(cache.getIfPresent("a/1"));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    void testViewSpansAllPartitions() throws ExecutionException {
+        PartitionedLoadingCache<String> cache = cache();
+        cache.get("a/1");
+        cache.get("b/1");
+        cache.put("no-prefix", "value");
+        assertEquals(3, cache.asMap().size());
+        assertEquals(3, cache.asMap().values().size());
+        assertEquals("B/1", cache.asMap().get("b/1"));
+
+        cache.invalidate("b/1");
+        assertNull(cache.getIfPresent("b/1"));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.asMap().size());
+    }
+}
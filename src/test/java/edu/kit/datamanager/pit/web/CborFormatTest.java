@@ -0,0 +1,103 @@
+package edu.kit.datamanager.pit.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.SimplePidRecord;
+
+@AutoConfigureMockMvc
+// JUnit5 + Spring
+@SpringBootTest
+// Set the in-memory implementation
+@TestPropertySource("/test/application-test.properties")
+@ActiveProfiles("test")
+class CborFormatTest {
+
+    private static final ObjectMapper CBOR = Application.cborObjectMapper();
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+    }
+
+    private byte[] register(byte[] body, String contentType, String accept) throws Exception {
+        return this.mockMvc.perform(post("/api/v1/pit/pid/")
+                .contentType(contentType)
+                .accept(accept)
+                .content(body))
+            .andExpect(MockMvcResultMatchers.status().isCreated())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(accept))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+    }
+
+    /**
+     * Input: cbor, Accept: cbor, Expect: cbor, HTTP 201
+     */
+    @Test
+    void testCreateFromCborAndAcceptCbor() throws Exception {
+        PIDRecord input = ApiMockUtils.getSomePidRecordInstance();
+        byte[] response = register(CBOR.writeValueAsBytes(input), MediaType.APPLICATION_CBOR_VALUE, MediaType.APPLICATION_CBOR_VALUE);
+        PIDRecord created = CBOR.readValue(response, PIDRecord.class);
+        assertEquals(input.getSimpleEntries(), created.getSimpleEntries());
+        // smaller than JSON
+        assertTrue(response.length < ApiMockUtils.serialize(created).getBytes().length);
+
+        byte[] resolved = this.mockMvc.perform(get("/api/v1/pit/pid/" + created.getPid())
+                .accept(MediaType.APPLICATION_CBOR))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        assertEquals(created, CBOR.readValue(resolved, PIDRecord.class));
+    }
+
+    /**
+     * Input: simple cbor, Accept: simple cbor, Expect: simple cbor, HTTP 201
+     */
+    @Test
+    void testCreateFromSimpleCborAndAcceptSimpleCbor() throws Exception {
+        PIDRecord input = ApiMockUtils.getSomePidRecordInstance();
+        byte[] body = CBOR.writeValueAsBytes(new SimplePidRecord(input));
+        byte[] response = register(body, SimplePidRecord.CONTENT_TYPE_CBOR, SimplePidRecord.CONTENT_TYPE_CBOR);
+        SimplePidRecord created = CBOR.readValue(response, SimplePidRecord.class);
+        assertEquals(input.getSimpleEntries().size(), created.getPairs().size());
+    }
+
+    /**
+     * Input: simple cbor, Accept: simple json, Expect: simple json, HTTP 201
+     */
+    @Test
+    void testCreateFromSimpleCborAndAcceptSimpleJson() throws Exception {
+        PIDRecord input = ApiMockUtils.getSomePidRecordInstance();
+        byte[] body = CBOR.writeValueAsBytes(new SimplePidRecord(input));
+        byte[] response = register(body, SimplePidRecord.CONTENT_TYPE_CBOR, SimplePidRecord.CONTENT_TYPE);
+        SimplePidRecord created = ApiMockUtils.getJsonMapper().readValue(response, SimplePidRecord.class);
+        assertEquals(input.getSimpleEntries().size(), created.getPairs().size());
+    }
+}
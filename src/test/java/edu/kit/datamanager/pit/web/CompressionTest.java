@@ -0,0 +1,71 @@
+package edu.kit.datamanager.pit.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Tests the transfer settings of the embedded server, which MockMvc does not
+ * cover.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+    locations = "/test/application-test.properties",
+    properties = {
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=2KB",
+        "server.http2.enabled=true"
+    }
+)
+@ActiveProfiles("test")
+class CompressionTest {
+
+    // the OpenAPI definition is a large JSON document which always exists
+    private static final String LARGE_JSON = "/v3/api-docs";
+
+    @LocalServerPort
+    private int port;
+
+    private HttpResponse<byte[]> get(HttpClient.Version version, String acceptEncoding) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + LARGE_JSON));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void testGzipIfAccepted() throws Exception {
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_1_1, "gzip");
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"));
+    }
+
+    @Test
+    void testNoCompressionIfNotAccepted() throws Exception {
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_1_1, null);
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+    }
+
+    @Test
+    void testHttp2WithoutTls() throws Exception {
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_2, "gzip");
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+        assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"));
+    }
+}
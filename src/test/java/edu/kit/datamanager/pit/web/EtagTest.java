@@ -3,6 +3,7 @@ package edu.kit.datamanager.pit.web;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.http.HttpHeaders;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +25,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.pidlog.KnownPid;
+import edu.kit.datamanager.pit.pidlog.KnownPidsDao;
 
 @AutoConfigureMockMvc
 // JUnit5 + Spring
@@ -42,6 +45,9 @@ class EtagTest {
     @Autowired
     private WebApplicationContext webApplicationContext;
 
+    @Autowired
+    private KnownPidsDao knownPidsDao;
+
     private MockMvc mockMvc;
 
     private PIDRecord existingRecord;
@@ -108,6 +114,38 @@ class EtagTest {
             .andReturn();
     }
 
+    /*
+     * Input: matching etag (If-None-Match)
+     * Action: resolve
+     * Expect: Not Modified (304) without a body, etag still in header
+     */
+    @Test
+    void givenIfNoneMatchEtag_onResolve_returnNoBody() throws Exception {
+        String etag = quoted(this.existingRecord.getEtag());
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(RESOLVE_URL.concat(this.existingRecord.getPid()))
+            .accept(MediaType.APPLICATION_JSON_VALUE)
+            .header(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = mockMvc
+            .perform(request)
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isNotModified())
+            .andReturn()
+            .getResponse();
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().isEmpty());
+    }
+
+    /*
+     * Input: no etag
+     * Action: create (in setup)
+     * Expect: the known PID stores the etag of the record
+     */
+    @Test
+    void givenCreatedRecord_knownPidStoresEtag() {
+        KnownPid known = this.knownPidsDao.findByPid(this.existingRecord.getPid()).orElseThrow();
+        assertEquals(this.existingRecord.getEtag(), known.getRecordEtag());
+    }
+
     /*
      * Input: invalid etag (If-None-Match)
      * Action: resolve
@@ -19,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.context.WebApplicationContext;
 
@@ -47,8 +48,10 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 
 import java.time.Instant;
@@ -240,6 +243,37 @@ class RestWithInMemoryTest {
         assertEquals(modified, updatedRecord);
     }
 
+    @Test
+    void testUpdateUnknownPidIsNotFoundBeforeValidation() throws Exception {
+        this.mockMvc
+            .perform(
+                put("/api/v1/pit/pid/sandboxed/does-not-exist")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(EMPTY_RECORD)
+                    .header("If-Match", ApiMockUtils.quoted("any-etag"))
+                    .accept(MediaType.ALL)
+            )
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void testUpdateInvalidRecordIsRejectedBeforeEtagCheck() throws Exception {
+        PIDRecord original = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        this.mockMvc
+            .perform(
+                put("/api/v1/pit/pid/" + original.getPid())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(EMPTY_RECORD)
+                    .header("If-Match", ApiMockUtils.quoted("outdated-etag"))
+                    .accept(MediaType.ALL)
+            )
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     void testIdPidRegisteredFails() throws Exception {
         // Nothing is registered, our local storags contains no PIDs
@@ -419,6 +453,123 @@ class RestWithInMemoryTest {
         assertEquals(r2.getPid(), pidinfos.get(0).getPid());
     }
 
+    /**
+     * Keyset pagination: the first page is requested with an empty token, further
+     * pages with the token of the previous response.
+     * 
+     * @throws Exception on failed assumptions
+     */
+    @Test
+    void testKnownPidKeysetPaging() throws Exception {
+        PIDRecord r1 = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        PIDRecord r2 = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        PIDRecord r3 = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        assertEquals(3, this.knownPidsDao.count());
+
+        MvcResult first = this.mockMvc.perform(get("/api/v1/pit/known-pid")
+                .param("size", "2")
+                .param("continuation", "")
+                .param("created_after", YESTERDAY.toString()))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.header().doesNotExist("Content-Range"))
+            .andReturn();
+        KnownPid[] firstPage = this.mapper.readValue(first.getResponse().getContentAsString(), KnownPid[].class);
+        assertEquals(2, firstPage.length);
+        String token = first.getResponse().getHeader(ITypingRestResource.CONTINUATION_HEADER);
+        assertNotNull(token);
+
+        MvcResult second = this.mockMvc.perform(get("/api/v1/pit/known-pid")
+                .param("size", "2")
+                .param("continuation", token)
+                .param("created_after", YESTERDAY.toString()))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn();
+        KnownPid[] secondPage = this.mapper.readValue(second.getResponse().getContentAsString(), KnownPid[].class);
+        assertEquals(1, secondPage.length);
+        List<String> seen = List.of(firstPage[0].getPid(), firstPage[1].getPid(), secondPage[0].getPid());
+        assertTrue(seen.containsAll(List.of(r1.getPid(), r2.getPid(), r3.getPid())));
+        assertEquals(null, second.getResponse().getHeader(ITypingRestResource.CONTINUATION_HEADER));
+
+        this.mockMvc.perform(get("/api/v1/pit/known-pid").param("continuation", "not-a-token"))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void testKnownPidExport() throws Exception {
+        PIDRecord r1 = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        PIDRecord r2 = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        PIDRecord r3 = ApiMockUtils.registerSomeRecord(this.mockMvc);
+        List<String> sorted = List.of(r1.getPid(), r2.getPid(), r3.getPid()).stream().sorted().toList();
+
+        String ndjson = export(KnownPidExport.NDJSON, null);
+        String[] lines = ndjson.split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            KnownPid known = this.mapper.readValue(lines[i], KnownPid.class);
+            assertEquals(sorted.get(i), known.getPid());
+        }
+
+        String csv = export(KnownPidExport.CSV, sorted.get(0));
+        String[] rows = csv.split("\n");
+        assertEquals("pid,created,modified", rows[0]);
+        assertEquals(3, rows.length);
+        assertTrue(rows[1].startsWith(sorted.get(1) + ","));
+        assertTrue(rows[2].startsWith(sorted.get(2) + ","));
+    }
+
+    @Test
+    void testKnownPidExportNegotiation() throws Exception {
+        ApiMockUtils.registerSomeRecord(this.mockMvc);
+        assertTrue(export("text/csv;q=0.5, application/x-ndjson", KnownPidExport.NDJSON, null).startsWith("{"));
+        assertTrue(export("application/x-ndjson;q=0.1, text/csv", KnownPidExport.CSV, null).startsWith("pid,"));
+        assertTrue(export("text/*, application/x-ndjson;q=0.5", KnownPidExport.CSV, null).startsWith("pid,"));
+    }
+
+    private String export(String mediaType, String resumeAfter) throws Exception {
+        return export(mediaType, mediaType, resumeAfter);
+    }
+
+    private String export(String accept, String mediaType, String resumeAfter) throws Exception {
+        var request = get("/api/v1/pit/known-pid").header(HttpHeaders.ACCEPT, accept);
+        if (resumeAfter != null) {
+            request.param("resume_after", resumeAfter);
+        }
+        MvcResult started = this.mockMvc.perform(request)
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        return this.mockMvc.perform(asyncDispatch(started))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(mediaType))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    }
+
+    @Test
+    void testKnownPidStatistics() throws Exception {
+        ApiMockUtils.registerSomeRecord(this.mockMvc);
+        ApiMockUtils.registerSomeRecord(this.mockMvc);
+        this.mockMvc.perform(get("/api/v1/pit/statistics/known-pid").param("bucket", "HOUR"))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[*].created", Matchers.hasSize(Matchers.greaterThan(0))))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[-1].created").isNumber());
+        this.mockMvc.perform(get("/api/v1/pit/statistics/known-pid").param("bucket", "WEEK"))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void testSearchNotEnabled() throws Exception {
+        this.mockMvc.perform(get("/api/v1/pit/search").param("query", "test"))
+            .andDo(MockMvcResultHandlers.print())
+            .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+    }
+
     @Test
     void testTabulatorFormat() throws Exception {
         PIDRecord r = ApiMockUtils.registerSomeRecord(this.mockMvc);
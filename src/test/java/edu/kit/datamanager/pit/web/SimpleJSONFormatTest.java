@@ -70,7 +70,8 @@ class SimpleJSONFormatTest {
     void testCreateWithUnsupportedAcceptType() throws Exception {
         SimplePidRecord input = new SimplePidRecord(ApiMockUtils.getSomePidRecordInstance());
         String requestBody = ApiMockUtils.getJsonMapper().writeValueAsString(input);
-        String detailMessage = "Acceptable representations: [" + ContentType.APPLICATION_JSON.getMimeType() + ", " + SimplePidRecord.CONTENT_TYPE + "].";
+        String detailMessage = "Acceptable representations: [" + ContentType.APPLICATION_JSON.getMimeType() + ", " + SimplePidRecord.CONTENT_TYPE
+            + ", " + MediaType.APPLICATION_CBOR_VALUE + ", " + SimplePidRecord.CONTENT_TYPE_CBOR + "].";
         ApiMockUtils.registerRecordAndGetResultActions(
             mockMvc,
             requestBody,
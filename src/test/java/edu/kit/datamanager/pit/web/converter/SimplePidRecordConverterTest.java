@@ -0,0 +1,111 @@
+package edu.kit.datamanager.pit.web.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.kit.datamanager.pit.Application;
+import edu.kit.datamanager.pit.domain.PIDRecord;
+import edu.kit.datamanager.pit.domain.SimplePidRecord;
+
+class SimplePidRecordConverterTest {
+
+    private static final ObjectMapper MAPPER = Application.jsonObjectMapper();
+    private static final MediaType SIMPLE = MediaType.valueOf(SimplePidRecord.CONTENT_TYPE);
+    private static final MediaType SIMPLE_CBOR = MediaType.valueOf(SimplePidRecord.CONTENT_TYPE_CBOR);
+
+    private final SimplePidRecordConverter converter = new SimplePidRecordConverter();
+
+    private static PIDRecord example() {
+        PIDRecord rec = new PIDRecord().withPID("sandboxed/simple");
+        rec.addEntry("21.T11148/076759916209e5d62bd5", "21.T11148/301c6f04763a16f0f72a");
+        rec.addEntry("21.T11148/b8457812905b83046284", "https://example.com/a");
+        rec.addEntry("21.T11148/b8457812905b83046284", "https://example.com/b");
+        return rec;
+    }
+
+    private PIDRecord read(String json) throws IOException {
+        return converter.read(PIDRecord.class, new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testWriteEqualsSerializedSimpleRecord() throws IOException {
+        PIDRecord rec = example();
+        rec.addEntry("21.T11148/empty", "");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(rec, SIMPLE, output);
+        assertEquals(
+            MAPPER.readTree(MAPPER.writeValueAsString(new SimplePidRecord(rec))),
+            MAPPER.readTree(output.getBodyAsString(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testWriteEmptyRecord() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(new PIDRecord(), SIMPLE, output);
+        assertEquals("{}", output.getBodyAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        PIDRecord rec = example();
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(rec, SIMPLE, output);
+        PIDRecord read = read(output.getBodyAsString(StandardCharsets.UTF_8));
+        // the PID is not read from the body
+        assertEquals("", read.getPid());
+        assertEquals(rec.withPID(""), read);
+    }
+
+    @Test
+    void testReadIgnoresUnknownFields() throws IOException {
+        PIDRecord read = read("""
+            {"unknown": {"nested": [1, 2]}, "record": [{"key": "k", "other": true, "value": "v"}]}
+            """);
+        assertEquals("v", read.getPropertyValue("k"));
+        assertEquals(1, read.getPropertyIdentifiers().size());
+    }
+
+    @Test
+    void testReadInvalidInput() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("[]"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"record\": {}}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"record\": [{\"value\": \"v\"}]}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"record\": [{\"key\": {}}]}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"record\": [{\"key\": \"k\""));
+    }
+
+    @Test
+    void testMediaTypesDoNotOverlap() {
+        SimplePidRecordConverter cbor = new SimplePidRecordConverter(Application.cborObjectMapper(), SIMPLE_CBOR);
+        assertFalse(converter.canWrite(PIDRecord.class, SIMPLE_CBOR));
+        assertFalse(cbor.canWrite(PIDRecord.class, SIMPLE));
+        assertFalse(cbor.canRead(PIDRecord.class, MediaType.valueOf("application/vnd.datamanager.pid.simple")));
+    }
+
+    @Test
+    void testCborEqualsSerializedSimpleRecord() throws IOException {
+        ObjectMapper cborMapper = Application.cborObjectMapper();
+        SimplePidRecordConverter cbor = new SimplePidRecordConverter(cborMapper, SIMPLE_CBOR);
+        PIDRecord rec = example();
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        cbor.write(rec, SIMPLE_CBOR, output);
+        byte[] body = output.getBodyAsBytes();
+        assertEquals(
+            cborMapper.readTree(cborMapper.writeValueAsBytes(new SimplePidRecord(rec))),
+            cborMapper.readTree(body));
+        PIDRecord read = cbor.read(PIDRecord.class, new MockHttpInputMessage(body));
+        assertEquals(rec.withPID(""), read);
+    }
+}